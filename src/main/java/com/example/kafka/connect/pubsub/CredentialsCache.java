@@ -0,0 +1,193 @@
+package com.example.kafka.connect.pubsub;
+
+import com.google.auth.oauth2.GoogleCredentials;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * Worker-wide cache of {@link RefreshingCredentials}, shared by every task that resolves to
+ * the same credential source. Entries are reference counted and stop refreshing once the last
+ * task using them releases its handle.
+ */
+final class CredentialsCache {
+
+    private static final Logger log = LoggerFactory.getLogger(CredentialsCache.class);
+
+    static final String APPLICATION_DEFAULT = "application-default";
+    static final List<String> PUBSUB_SCOPES =
+            Collections.singletonList("https://www.googleapis.com/auth/pubsub");
+
+    private static final Map<String, Entry> ENTRIES = new HashMap<>();
+    private static ScheduledExecutorService scheduler;
+
+    /**
+     * A cache slot whose credentials are completed by the task that created it. Only the map
+     * and the reference counts are guarded by the cache lock; loading and the first token mint
+     * happen outside it so a slow token endpoint for one source does not hold up the others.
+     */
+    private static final class Entry {
+        final CompletableFuture<RefreshingCredentials> credentials = new CompletableFuture<>();
+        int references;
+    }
+
+    private CredentialsCache() {
+    }
+
+    /**
+     * Returns the shared credentials for the source configured in {@code config}, loading them
+     * and starting their background refresh on first use.
+     */
+    static RefreshingCredentials acquire(PubSubSinkConnectorConfig config) throws IOException {
+        String source = resolveSource(config);
+        Path sourcePath = APPLICATION_DEFAULT.equals(source) ? null : Paths.get(source);
+        return acquire(source, sourcePath, config.getGcpCredentialsRefreshMarginMs(),
+                config.isGcpCredentialsWatchEnabled(), () -> load(sourcePath));
+    }
+
+    static RefreshingCredentials acquire(String source, Path sourcePath, long refreshMarginMs,
+                                         boolean watchFiles, RefreshingCredentials.Loader loader) throws IOException {
+        // Connectors sharing a file but not its refresh settings get separate entries
+        String key = cacheKey(source, refreshMarginMs, watchFiles);
+        Entry entry;
+        boolean created = false;
+        ScheduledExecutorService refresher;
+        synchronized (CredentialsCache.class) {
+            entry = ENTRIES.get(key);
+            if (entry == null) {
+                if (scheduler == null) {
+                    scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                        Thread thread = new Thread(r, "pubsub-credentials-refresher");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                }
+                entry = new Entry();
+                ENTRIES.put(key, entry);
+                created = true;
+            }
+            entry.references++;
+            refresher = scheduler;
+        }
+
+        if (created) {
+            log.info("Loading GCP credentials from {}", source);
+            try {
+                RefreshingCredentials credentials =
+                        new RefreshingCredentials(loader, sourcePath, refreshMarginMs, refresher);
+                credentials.start(watchFiles);
+                entry.credentials.complete(credentials);
+            } catch (IOException | RuntimeException e) {
+                entry.credentials.completeExceptionally(e);
+                remove(key, entry);
+                throw e;
+            }
+        } else {
+            log.info("Reusing cached GCP credentials from {}", source);
+        }
+
+        try {
+            return entry.credentials.join();
+        } catch (CompletionException e) {
+            // The creating task removed the failed entry, so there is no reference to give back
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw new IOException(cause.getMessage(), cause);
+            }
+            throw e;
+        }
+    }
+
+    static String cacheKey(String source, long refreshMarginMs, boolean watchFiles) {
+        return source + " (refresh margin " + refreshMarginMs + " ms, watch " + watchFiles + ")";
+    }
+
+    static void release(RefreshingCredentials credentials) {
+        String closedKey = null;
+        synchronized (CredentialsCache.class) {
+            for (Map.Entry<String, Entry> e : ENTRIES.entrySet()) {
+                Entry entry = e.getValue();
+                if (entry.credentials.getNow(null) == credentials) {
+                    if (--entry.references <= 0) {
+                        closedKey = e.getKey();
+                    }
+                    break;
+                }
+            }
+            if (closedKey != null) {
+                ENTRIES.remove(closedKey);
+                shutdownSchedulerIfIdle();
+            }
+        }
+        if (closedKey != null) {
+            log.info("Closing GCP credentials from {}", closedKey);
+            credentials.close();
+        }
+    }
+
+    private static synchronized void remove(String key, Entry entry) {
+        ENTRIES.remove(key, entry);
+        shutdownSchedulerIfIdle();
+    }
+
+    private static void shutdownSchedulerIfIdle() {
+        if (ENTRIES.isEmpty() && scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    static synchronized int size() {
+        return ENTRIES.size();
+    }
+
+    /**
+     * Workload Identity configuration takes precedence when enabled, then the service account
+     * key file, then Application Default Credentials.
+     */
+    static String resolveSource(PubSubSinkConnectorConfig config) {
+        String workloadConfig = config.getWorkloadCredentialConfig();
+        if (config.isWorkloadIdentityEnabled() && workloadConfig != null && !workloadConfig.isEmpty()) {
+            return workloadConfig;
+        }
+        String credentialsPath = config.getGcpCredentialsFilePath();
+        if (credentialsPath != null && !credentialsPath.isEmpty()) {
+            return credentialsPath;
+        }
+        return APPLICATION_DEFAULT;
+    }
+
+    /**
+     * Loads scoped credentials for the source configured in {@code config} without caching them
+     * or starting a background refresh, for one-off checks such as connector validation.
+     */
+    static GoogleCredentials load(PubSubSinkConnectorConfig config) throws IOException {
+        String source = resolveSource(config);
+        return load(APPLICATION_DEFAULT.equals(source) ? null : Paths.get(source));
+    }
+
+    private static GoogleCredentials load(Path sourcePath) throws IOException {
+        GoogleCredentials credentials;
+        if (sourcePath == null) {
+            credentials = GoogleCredentials.getApplicationDefault();
+        } else {
+            try (InputStream in = new FileInputStream(sourcePath.toFile())) {
+                credentials = GoogleCredentials.fromStream(in);
+            }
+        }
+        return credentials.createScopedRequired() ? credentials.createScoped(PUBSUB_SCOPES) : credentials;
+    }
+}
@@ -1,12 +1,18 @@
 package com.example.kafka.connect.pubsub;
 
+import com.google.auth.oauth2.GoogleCredentials;
+import com.google.cloud.pubsub.v1.TopicAdminClient;
+import com.google.pubsub.v1.TopicName;
+import org.apache.kafka.common.config.Config;
 import org.apache.kafka.common.config.ConfigDef;
 import org.apache.kafka.common.config.ConfigException;
+import org.apache.kafka.common.config.ConfigValue;
 import org.apache.kafka.connect.connector.Task;
 import org.apache.kafka.connect.sink.SinkConnector;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -62,6 +68,60 @@ public class PubSubSinkConnector extends SinkConnector {
         log.info("Stopping PubSubSinkConnector");
     }
 
+    @Override
+    public Config validate(Map<String, String> connectorConfigs) {
+        Config result = super.validate(connectorConfigs);
+        for (ConfigValue value : result.configValues()) {
+            if (!value.errorMessages().isEmpty()) {
+                return result;
+            }
+        }
+        
+        PubSubSinkConnectorConfig config = new PubSubSinkConnectorConfig(connectorConfigs);
+        if (!config.isPubSubWarmupEnabled()) {
+            return result;
+        }
+        
+        try {
+            for (String problem : verifyTopics(config).values()) {
+                addError(result, PubSubSinkConnectorConfig.PUBSUB_TOPIC, problem);
+            }
+        } catch (IOException e) {
+            log.warn("Could not load GCP credentials during validation", e);
+            addError(result, credentialSourceKey(config), "Could not load GCP credentials: " + e.getMessage());
+        }
+        return result;
+    }
+
+    /**
+     * Checks the destination topics with the connector's credentials. Returns problems keyed by
+     * topic; checks that cannot complete are logged and omitted rather than failing validation.
+     * The check needs a single token, so it loads plain credentials instead of a cached,
+     * refreshing and watched entry.
+     */
+    Map<TopicName, String> verifyTopics(PubSubSinkConnectorConfig config) throws IOException {
+        GoogleCredentials credentials = CredentialsCache.load(config);
+        try (TopicAdminClient adminClient = PublisherWarmup.createAdminClient(null, credentials)) {
+            return PublisherWarmup.verifyTopics(adminClient,
+                    PublisherWarmup.destinationTopics(config), 1, config.getPubSubWarmupTimeoutMs());
+        }
+    }
+
+    private static String credentialSourceKey(PubSubSinkConnectorConfig config) {
+        return config.getWorkloadCredentialConfig().equals(CredentialsCache.resolveSource(config))
+                ? PubSubSinkConnectorConfig.GCP_WORKLOAD_CREDENTIAL_CONFIG
+                : PubSubSinkConnectorConfig.GCP_CREDENTIALS_FILE_PATH;
+    }
+
+    private static void addError(Config config, String name, String message) {
+        for (ConfigValue value : config.configValues()) {
+            if (value.name().equals(name)) {
+                value.addErrorMessage(message);
+                return;
+            }
+        }
+    }
+
     @Override
     public ConfigDef config() {
         return PubSubSinkConnectorConfig.CONFIG_DEF;
@@ -5,6 +5,7 @@ import org.apache.kafka.common.config.ConfigDef;
 import org.apache.kafka.common.config.ConfigDef.Importance;
 import org.apache.kafka.common.config.ConfigDef.Type;
 
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -31,6 +32,14 @@ public class PubSubSinkConnectorConfig extends AbstractConfig {
     public static final String GCP_WORKLOAD_CREDENTIAL_CONFIG_DOC = "Path to Workload Identity credential configuration JSON file";
     public static final String GCP_WORKLOAD_CREDENTIAL_CONFIG_DEFAULT = "";
     
+    public static final String GCP_CREDENTIALS_REFRESH_MARGIN_MS = "gcp.credentials.refresh.margin.ms";
+    public static final String GCP_CREDENTIALS_REFRESH_MARGIN_MS_DOC = "How long before access token expiry the background refresher mints a new token, in milliseconds. Must be at least 225000 (3m45s), the point at which the Google auth library starts refreshing tokens itself";
+    public static final long GCP_CREDENTIALS_REFRESH_MARGIN_MS_DEFAULT = 300000L;
+    
+    public static final String GCP_CREDENTIALS_WATCH_ENABLED = "gcp.credentials.watch.enabled";
+    public static final String GCP_CREDENTIALS_WATCH_ENABLED_DOC = "Watch the credential configuration and the X.509 certificate and key files it references, and reload credentials when they change";
+    public static final boolean GCP_CREDENTIALS_WATCH_ENABLED_DEFAULT = true;
+    
     public static final String PUBSUB_MESSAGE_BODY_NAME = "pubsub.message.body.name";
     public static final String PUBSUB_MESSAGE_BODY_NAME_DOC = "The field name from Kafka record value to use as Pub/Sub message body. If not set, entire value is used.";
     public static final String PUBSUB_MESSAGE_BODY_NAME_DEFAULT = "";
@@ -46,6 +55,42 @@ public class PubSubSinkConnectorConfig extends AbstractConfig {
     public static final String PUBSUB_PUBLISH_TIMEOUT_MS = "pubsub.publish.timeout.ms";
     public static final String PUBSUB_PUBLISH_TIMEOUT_MS_DOC = "Timeout in milliseconds for publishing to Pub/Sub";
     public static final long PUBSUB_PUBLISH_TIMEOUT_MS_DEFAULT = 30000L;
+    
+    public static final String PUBSUB_WARMUP_ENABLED = "pubsub.warmup.enabled";
+    public static final String PUBSUB_WARMUP_ENABLED_DOC = "Pre-establish the publisher channel and verify that the destination topic exists and is publishable when a task starts, and check the topic during connector validation";
+    public static final boolean PUBSUB_WARMUP_ENABLED_DEFAULT = false;
+    
+    public static final String PUBSUB_WARMUP_TIMEOUT_MS = "pubsub.warmup.timeout.ms";
+    public static final String PUBSUB_WARMUP_TIMEOUT_MS_DOC = "Time budget in milliseconds for warm-up and topic verification; checks still running when it expires are skipped";
+    public static final long PUBSUB_WARMUP_TIMEOUT_MS_DEFAULT = 10000L;
+    
+    public static final String PUBSUB_FILTER_TOPICS = "pubsub.filter.topics";
+    public static final String PUBSUB_FILTER_TOPICS_DOC = "Kafka topics whose records are published. If empty, records from all topics are published.";
+    public static final String PUBSUB_FILTER_TOPICS_DEFAULT = "";
+    
+    public static final String PUBSUB_FILTER_KEY_PREFIXES = "pubsub.filter.key.prefixes";
+    public static final String PUBSUB_FILTER_KEY_PREFIXES_DOC = "Only records whose String or bytes key starts with one of these prefixes are published. If empty, keys are not checked.";
+    public static final String PUBSUB_FILTER_KEY_PREFIXES_DEFAULT = "";
+    
+    public static final String PUBSUB_FILTER_HEADER_NAME = "pubsub.filter.header.name";
+    public static final String PUBSUB_FILTER_HEADER_NAME_DOC = "Only records carrying this header are published. If empty, headers are not checked.";
+    public static final String PUBSUB_FILTER_HEADER_NAME_DEFAULT = "";
+    
+    public static final String PUBSUB_FILTER_HEADER_VALUE = "pubsub.filter.header.value";
+    public static final String PUBSUB_FILTER_HEADER_VALUE_DOC = "If set, the header named by pubsub.filter.header.name must also have this value";
+    public static final String PUBSUB_FILTER_HEADER_VALUE_DEFAULT = "";
+    
+    public static final String PUBSUB_FILTER_SAMPLE_RATE = "pubsub.filter.sample.rate";
+    public static final String PUBSUB_FILTER_SAMPLE_RATE_DOC = "Fraction of records to publish, chosen deterministically by key hash so a given key is always either published or dropped";
+    public static final double PUBSUB_FILTER_SAMPLE_RATE_DEFAULT = 1.0;
+    
+    public static final String PUBSUB_TRACING_ENABLED = "pubsub.tracing.enabled";
+    public static final String PUBSUB_TRACING_ENABLED_DOC = "Emit OpenTelemetry spans for record conversion and publishing, and propagate W3C trace context from Kafka headers into Pub/Sub message attributes";
+    public static final boolean PUBSUB_TRACING_ENABLED_DEFAULT = false;
+    
+    public static final String PUBSUB_TRACING_SAMPLE_RATIO = "pubsub.tracing.sample.ratio";
+    public static final String PUBSUB_TRACING_SAMPLE_RATIO_DOC = "Fraction of records without an upstream traceparent header that are traced. Records with one follow its sampled flag.";
+    public static final double PUBSUB_TRACING_SAMPLE_RATIO_DEFAULT = 0.01;
 
     public static final ConfigDef CONFIG_DEF = new ConfigDef()
             .define(GCP_PROJECT_ID, 
@@ -71,6 +116,17 @@ public class PubSubSinkConnectorConfig extends AbstractConfig {
                     GCP_WORKLOAD_CREDENTIAL_CONFIG_DEFAULT,
                     Importance.HIGH,
                     GCP_WORKLOAD_CREDENTIAL_CONFIG_DOC)
+            .define(GCP_CREDENTIALS_REFRESH_MARGIN_MS,
+                    Type.LONG,
+                    GCP_CREDENTIALS_REFRESH_MARGIN_MS_DEFAULT,
+                    ConfigDef.Range.atLeast(RefreshingCredentials.MIN_REFRESH_MARGIN_MS),
+                    Importance.LOW,
+                    GCP_CREDENTIALS_REFRESH_MARGIN_MS_DOC)
+            .define(GCP_CREDENTIALS_WATCH_ENABLED,
+                    Type.BOOLEAN,
+                    GCP_CREDENTIALS_WATCH_ENABLED_DEFAULT,
+                    Importance.LOW,
+                    GCP_CREDENTIALS_WATCH_ENABLED_DOC)
             .define(PUBSUB_MESSAGE_BODY_NAME,
                     Type.STRING,
                     PUBSUB_MESSAGE_BODY_NAME_DEFAULT,
@@ -90,7 +146,55 @@ public class PubSubSinkConnectorConfig extends AbstractConfig {
                     Type.LONG,
                     PUBSUB_PUBLISH_TIMEOUT_MS_DEFAULT,
                     Importance.LOW,
-                    PUBSUB_PUBLISH_TIMEOUT_MS_DOC);
+                    PUBSUB_PUBLISH_TIMEOUT_MS_DOC)
+            .define(PUBSUB_WARMUP_ENABLED,
+                    Type.BOOLEAN,
+                    PUBSUB_WARMUP_ENABLED_DEFAULT,
+                    Importance.MEDIUM,
+                    PUBSUB_WARMUP_ENABLED_DOC)
+            .define(PUBSUB_WARMUP_TIMEOUT_MS,
+                    Type.LONG,
+                    PUBSUB_WARMUP_TIMEOUT_MS_DEFAULT,
+                    ConfigDef.Range.atLeast(0L),
+                    Importance.LOW,
+                    PUBSUB_WARMUP_TIMEOUT_MS_DOC)
+            .define(PUBSUB_FILTER_TOPICS,
+                    Type.LIST,
+                    PUBSUB_FILTER_TOPICS_DEFAULT,
+                    Importance.MEDIUM,
+                    PUBSUB_FILTER_TOPICS_DOC)
+            .define(PUBSUB_FILTER_KEY_PREFIXES,
+                    Type.LIST,
+                    PUBSUB_FILTER_KEY_PREFIXES_DEFAULT,
+                    Importance.MEDIUM,
+                    PUBSUB_FILTER_KEY_PREFIXES_DOC)
+            .define(PUBSUB_FILTER_HEADER_NAME,
+                    Type.STRING,
+                    PUBSUB_FILTER_HEADER_NAME_DEFAULT,
+                    Importance.MEDIUM,
+                    PUBSUB_FILTER_HEADER_NAME_DOC)
+            .define(PUBSUB_FILTER_HEADER_VALUE,
+                    Type.STRING,
+                    PUBSUB_FILTER_HEADER_VALUE_DEFAULT,
+                    Importance.MEDIUM,
+                    PUBSUB_FILTER_HEADER_VALUE_DOC)
+            .define(PUBSUB_FILTER_SAMPLE_RATE,
+                    Type.DOUBLE,
+                    PUBSUB_FILTER_SAMPLE_RATE_DEFAULT,
+                    ConfigDef.Range.between(0.0, 1.0),
+                    Importance.MEDIUM,
+                    PUBSUB_FILTER_SAMPLE_RATE_DOC)
+            .define(PUBSUB_TRACING_ENABLED,
+                    Type.BOOLEAN,
+                    PUBSUB_TRACING_ENABLED_DEFAULT,
+                    Importance.LOW,
+                    PUBSUB_TRACING_ENABLED_DOC)
+            .define(PUBSUB_TRACING_SAMPLE_RATIO,
+                    Type.DOUBLE,
+                    PUBSUB_TRACING_SAMPLE_RATIO_DEFAULT,
+                    ConfigDef.Range.between(0.0, 1.0),
+                    Importance.LOW,
+                    PUBSUB_TRACING_SAMPLE_RATIO_DOC);
 
     public PubSubSinkConnectorConfig(Map<?, ?> originals) {
         super(CONFIG_DEF, originals);
@@ -116,6 +220,14 @@ public class PubSubSinkConnectorConfig extends AbstractConfig {
         return getString(GCP_WORKLOAD_CREDENTIAL_CONFIG);
     }
 
+    public long getGcpCredentialsRefreshMarginMs() {
+        return getLong(GCP_CREDENTIALS_REFRESH_MARGIN_MS);
+    }
+
+    public boolean isGcpCredentialsWatchEnabled() {
+        return getBoolean(GCP_CREDENTIALS_WATCH_ENABLED);
+    }
+
     public String getPubSubMessageBodyName() {
         return getString(PUBSUB_MESSAGE_BODY_NAME);
     }
@@ -131,4 +243,40 @@ public class PubSubSinkConnectorConfig extends AbstractConfig {
     public long getPubSubPublishTimeoutMs() {
         return getLong(PUBSUB_PUBLISH_TIMEOUT_MS);
     }
+
+    public boolean isPubSubWarmupEnabled() {
+        return getBoolean(PUBSUB_WARMUP_ENABLED);
+    }
+
+    public long getPubSubWarmupTimeoutMs() {
+        return getLong(PUBSUB_WARMUP_TIMEOUT_MS);
+    }
+
+    public List<String> getPubSubFilterTopics() {
+        return getList(PUBSUB_FILTER_TOPICS);
+    }
+
+    public List<String> getPubSubFilterKeyPrefixes() {
+        return getList(PUBSUB_FILTER_KEY_PREFIXES);
+    }
+
+    public String getPubSubFilterHeaderName() {
+        return getString(PUBSUB_FILTER_HEADER_NAME);
+    }
+
+    public String getPubSubFilterHeaderValue() {
+        return getString(PUBSUB_FILTER_HEADER_VALUE);
+    }
+
+    public double getPubSubFilterSampleRate() {
+        return getDouble(PUBSUB_FILTER_SAMPLE_RATE);
+    }
+
+    public boolean isPubSubTracingEnabled() {
+        return getBoolean(PUBSUB_TRACING_ENABLED);
+    }
+
+    public double getPubSubTracingSampleRatio() {
+        return getDouble(PUBSUB_TRACING_SAMPLE_RATIO);
+    }
 }
@@ -3,15 +3,17 @@ package com.example.kafka.connect.pubsub;
 import com.google.api.core.ApiFuture;
 import com.google.api.core.ApiFutureCallback;
 import com.google.api.core.ApiFutures;
-import com.google.api.gax.core.CredentialsProvider;
 import com.google.api.gax.core.FixedCredentialsProvider;
 import com.google.api.gax.rpc.ApiException;
-import com.google.auth.oauth2.GoogleCredentials;
+import com.google.api.gax.rpc.FixedTransportChannelProvider;
+import com.google.api.gax.rpc.TransportChannel;
 import com.google.cloud.pubsub.v1.Publisher;
+import com.google.cloud.pubsub.v1.TopicAdminClient;
 import com.google.common.util.concurrent.MoreExecutors;
 import com.google.protobuf.ByteString;
 import com.google.pubsub.v1.PubsubMessage;
 import com.google.pubsub.v1.TopicName;
+import io.opentelemetry.api.GlobalOpenTelemetry;
 import org.apache.kafka.clients.consumer.OffsetAndMetadata;
 import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.connect.data.Struct;
@@ -22,7 +24,6 @@ import org.apache.kafka.connect.sink.SinkTask;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.util.Collection;
 import java.util.Map;
@@ -38,8 +39,33 @@ public class PubSubSinkTask extends SinkTask {
     
     private PubSubSinkConnectorConfig config;
     private Publisher publisher;
+    private RefreshingCredentials credentials;
+    private TransportChannel channel;
+    private RecordFilter filter;
+    private long reportedDrops;
+    private PublishTracer tracer;
     private AtomicInteger errorCount = new AtomicInteger(0);
     
+    // Shared by every untraced record so the publish path allocates no callback per message
+    private final ApiFutureCallback<String> publishCallback = new ApiFutureCallback<String>() {
+        @Override
+        public void onSuccess(String messageId) {
+            log.debug("Published message with ID: {}", messageId);
+            errorCount.set(0); // Reset error count on success
+        }
+
+        @Override
+        public void onFailure(Throwable throwable) {
+            if (throwable instanceof ApiException) {
+                ApiException apiException = (ApiException) throwable;
+                log.error("API error publishing message: status={}", 
+                        apiException.getStatusCode(), throwable);
+            } else {
+                log.error("Error publishing message", throwable);
+            }
+        }
+    };
+    
     @Override
     public String version() {
         return "1.0.0";
@@ -51,14 +77,48 @@ public class PubSubSinkTask extends SinkTask {
         
         try {
             config = new PubSubSinkConnectorConfig(props);
+            filter = RecordFilter.fromConfig(config);
+            if (config.isPubSubTracingEnabled()) {
+                tracer = new PublishTracer(GlobalOpenTelemetry.get(),
+                        config.getPubSubTracingSampleRatio(), config.getPubSubTopic());
+            }
+            // Credentials are shared across tasks in this worker and refreshed ahead of expiry
+            credentials = CredentialsCache.acquire(config);
+            if (config.isPubSubWarmupEnabled()) {
+                warmUp();
+            }
             publisher = createPublisher();
             log.info("PubSubSinkTask started successfully");
         } catch (Exception e) {
             log.error("Failed to start PubSubSinkTask", e);
+            releaseResources();
             throw new ConnectException("Failed to start PubSubSinkTask", e);
         }
     }
 
+    /**
+     * Opens the channel pool the publisher will use and verifies the destination topics over
+     * every channel in it, so the TLS handshakes and a missing or unpublishable topic are dealt
+     * with before the first put().
+     */
+    private void warmUp() throws IOException {
+        long startMs = System.currentTimeMillis();
+        channel = PublisherWarmup.openChannel(credentials);
+        
+        Map<TopicName, String> problems;
+        try (TopicAdminClient adminClient = PublisherWarmup.createAdminClient(
+                FixedTransportChannelProvider.create(channel), credentials)) {
+            problems = PublisherWarmup.verifyTopics(adminClient,
+                    PublisherWarmup.destinationTopics(config), PublisherWarmup.channelCount(),
+                    config.getPubSubWarmupTimeoutMs());
+        }
+        if (!problems.isEmpty()) {
+            throw new ConnectException(String.join("; ", problems.values()));
+        }
+        
+        log.info("Pub/Sub publisher warmed up in {} ms", System.currentTimeMillis() - startMs);
+    }
+
     private Publisher createPublisher() throws IOException {
         String projectId = config.getGcpProjectId();
         String topicName = config.getPubSubTopic();
@@ -66,23 +126,9 @@ public class PubSubSinkTask extends SinkTask {
         TopicName topic = TopicName.of(projectId, topicName);
         Publisher.Builder builder = Publisher.newBuilder(topic);
         
-        // Load credentials from file path if provided
-        String credentialsPath = config.getGcpCredentialsFilePath();
-        if (credentialsPath != null && !credentialsPath.isEmpty()) {
-            log.info("Loading credentials from file: {}", credentialsPath);
-            try {
-                GoogleCredentials credentials = GoogleCredentials.fromStream(
-                    new FileInputStream(credentialsPath)
-                );
-                CredentialsProvider credentialsProvider = FixedCredentialsProvider.create(credentials);
-                builder.setCredentialsProvider(credentialsProvider);
-                log.info("Successfully loaded credentials from file");
-            } catch (IOException e) {
-                log.error("Failed to load credentials from file: {}", credentialsPath, e);
-                throw e;
-            }
-        } else {
-            log.warn("No credentials file path configured, using Application Default Credentials");
+        builder.setCredentialsProvider(FixedCredentialsProvider.create(credentials));
+        if (channel != null) {
+            builder.setChannelProvider(FixedTransportChannelProvider.create(channel));
         }
         
         return builder.build();
@@ -97,6 +143,9 @@ public class PubSubSinkTask extends SinkTask {
         log.debug("Received {} records", records.size());
         
         for (SinkRecord record : records) {
+            if (filter != null && !filter.accept(record)) {
+                continue;
+            }
             try {
                 publishRecord(record);
             } catch (Exception e) {
@@ -112,37 +161,45 @@ public class PubSubSinkTask extends SinkTask {
     }
 
     private void publishRecord(SinkRecord record) {
+        PublishTracer.RecordTrace trace = tracer != null ? tracer.start(record) : null;
         try {
-            PubsubMessage message = convertToPubSubMessage(record);
+            PubsubMessage message = convertToPubSubMessage(record, trace);
+            if (trace != null) {
+                trace.converted();
+            }
             
             ApiFuture<String> messageIdFuture = publisher.publish(message);
             
-            ApiFutures.addCallback(messageIdFuture, new ApiFutureCallback<String>() {
-                @Override
-                public void onSuccess(String messageId) {
-                    log.debug("Published message with ID: {}", messageId);
-                    errorCount.set(0); // Reset error count on success
-                }
-
-                @Override
-                public void onFailure(Throwable throwable) {
-                    if (throwable instanceof ApiException) {
-                        ApiException apiException = (ApiException) throwable;
-                        log.error("API error publishing message: status={}", 
-                                apiException.getStatusCode(), throwable);
-                    } else {
-                        log.error("Error publishing message", throwable);
-                    }
-                }
-            }, MoreExecutors.directExecutor());
+            ApiFutures.addCallback(messageIdFuture,
+                    trace != null ? tracedPublishCallback(trace) : publishCallback,
+                    MoreExecutors.directExecutor());
             
         } catch (Exception e) {
+            if (trace != null) {
+                trace.failed(e);
+            }
             log.error("Error converting record to Pub/Sub message", e);
             throw new RetriableException("Error converting record", e);
         }
     }
 
-    private PubsubMessage convertToPubSubMessage(SinkRecord record) {
+    private ApiFutureCallback<String> tracedPublishCallback(PublishTracer.RecordTrace trace) {
+        return new ApiFutureCallback<String>() {
+            @Override
+            public void onSuccess(String messageId) {
+                trace.published(messageId);
+                publishCallback.onSuccess(messageId);
+            }
+
+            @Override
+            public void onFailure(Throwable throwable) {
+                trace.failed(throwable);
+                publishCallback.onFailure(throwable);
+            }
+        };
+    }
+
+    private PubsubMessage convertToPubSubMessage(SinkRecord record, PublishTracer.RecordTrace trace) {
         PubsubMessage.Builder messageBuilder = PubsubMessage.newBuilder();
         
         // Set message data
@@ -164,6 +221,13 @@ public class PubSubSinkTask extends SinkTask {
             messageBuilder.putAttributes("kafka.timestamp", String.valueOf(record.timestamp()));
         }
         
+        // Propagate trace context
+        if (trace != null) {
+            trace.inject(messageBuilder);
+        } else if (tracer != null) {
+            tracer.propagate(record, messageBuilder);
+        }
+        
         return messageBuilder.build();
     }
 
@@ -227,11 +291,20 @@ public class PubSubSinkTask extends SinkTask {
     public void flush(Map<TopicPartition, OffsetAndMetadata> currentOffsets) {
         log.debug("Flushing records");
         // Publisher will handle batching and publishing
+        logFilterDrops();
+    }
+
+    private void logFilterDrops() {
+        if (filter != null && filter.totalDropped() != reportedDrops) {
+            reportedDrops = filter.totalDropped();
+            log.info("Records dropped by filter: {}", filter.dropCounts());
+        }
     }
 
     @Override
     public void stop() {
         log.info("Stopping PubSubSinkTask");
+        logFilterDrops();
         
         if (publisher != null) {
             try {
@@ -242,6 +315,25 @@ public class PubSubSinkTask extends SinkTask {
             }
         }
         
+        releaseResources();
+        
         log.info("PubSubSinkTask stopped");
     }
+
+    private void releaseResources() {
+        if (channel != null) {
+            try {
+                channel.shutdown();
+                channel.awaitTermination(config.getPubSubPublishTimeoutMs(), TimeUnit.MILLISECONDS);
+            } catch (Exception e) {
+                log.error("Error closing Pub/Sub channel", e);
+            }
+            channel = null;
+        }
+        
+        if (credentials != null) {
+            CredentialsCache.release(credentials);
+            credentials = null;
+        }
+    }
 }
@@ -0,0 +1,189 @@
+package com.example.kafka.connect.pubsub;
+
+import com.google.pubsub.v1.PubsubMessage;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.propagation.TextMapGetter;
+import io.opentelemetry.context.propagation.TextMapSetter;
+import org.apache.kafka.connect.header.Header;
+import org.apache.kafka.connect.header.Headers;
+import org.apache.kafka.connect.sink.SinkRecord;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Head-sampled tracing of the publish path. The sampling decision is made once per record
+ * from the upstream {@code traceparent} header or the configured ratio, before any span or
+ * context object is created, so unsampled records only pay for a header lookup.
+ *
+ * <p>A sampled record gets a {@code send} span covering it from conversion to the Pub/Sub
+ * ack, with a {@code convert} child for conversion and a {@code publish} child for the time
+ * the message spends in the publisher batch plus the publish RPC. The send span's context is
+ * written to the message attributes; unsampled records have the upstream trace headers copied
+ * through unchanged.
+ */
+final class PublishTracer {
+
+    static final String INSTRUMENTATION_NAME = "com.example.kafka.connect.pubsub";
+    static final String TRACEPARENT = "traceparent";
+    static final String TRACESTATE = "tracestate";
+
+    // traceparent is "00-<32 hex trace id>-<16 hex span id>-<2 hex flags>"
+    private static final int TRACEPARENT_LENGTH = 55;
+    private static final int TRACEPARENT_FLAGS_INDEX = 54;
+
+    private static final TextMapGetter<Headers> HEADERS_GETTER = new TextMapGetter<Headers>() {
+        @Override
+        public Iterable<String> keys(Headers headers) {
+            List<String> keys = new ArrayList<>(headers.size());
+            for (Header header : headers) {
+                keys.add(header.key());
+            }
+            return keys;
+        }
+
+        @Override
+        public String get(Headers headers, String key) {
+            return headers == null ? null : headerString(headers.lastWithName(key));
+        }
+    };
+
+    private static final TextMapSetter<PubsubMessage.Builder> ATTRIBUTES_SETTER =
+            (builder, key, value) -> builder.putAttributes(key, value);
+
+    private final Tracer tracer;
+    private final double sampleRatio;
+    private final String spanName;
+    private final String destination;
+
+    PublishTracer(OpenTelemetry openTelemetry, double sampleRatio, String pubSubTopic) {
+        this.tracer = openTelemetry.getTracer(INSTRUMENTATION_NAME);
+        this.sampleRatio = sampleRatio;
+        this.spanName = pubSubTopic + " send";
+        this.destination = pubSubTopic;
+    }
+
+    /**
+     * Starts tracing {@code record} if it is sampled, returning null otherwise.
+     */
+    RecordTrace start(SinkRecord record) {
+        Header traceparent = record.headers().lastWithName(TRACEPARENT);
+        if (!isSampled(traceparent)) {
+            return null;
+        }
+
+        Context parent = W3CTraceContextPropagator.getInstance()
+                .extract(Context.root(), record.headers(), HEADERS_GETTER);
+        Span send = tracer.spanBuilder(spanName)
+                .setParent(parent)
+                .setSpanKind(SpanKind.PRODUCER)
+                .setAttribute("messaging.system", "gcp_pubsub")
+                .setAttribute("messaging.destination.name", destination)
+                .setAttribute("kafka.topic", record.topic())
+                .setAttribute("kafka.partition", record.kafkaPartition() == null ? -1L : record.kafkaPartition())
+                .setAttribute("kafka.offset", record.kafkaOffset())
+                .startSpan();
+        return new RecordTrace(parent.with(send), send);
+    }
+
+    /**
+     * Copies the upstream trace headers of an unsampled record into the message attributes, so
+     * downstream consumers stay in the producer's trace.
+     */
+    void propagate(SinkRecord record, PubsubMessage.Builder messageBuilder) {
+        Header traceparent = record.headers().lastWithName(TRACEPARENT);
+        if (traceparent == null) {
+            return;
+        }
+        String value = headerString(traceparent);
+        if (value != null) {
+            messageBuilder.putAttributes(TRACEPARENT, value);
+            String tracestate = headerString(record.headers().lastWithName(TRACESTATE));
+            if (tracestate != null) {
+                messageBuilder.putAttributes(TRACESTATE, tracestate);
+            }
+        }
+    }
+
+    /**
+     * Follows the sampled flag of a well-formed upstream traceparent, otherwise samples by ratio.
+     * Reads the flag character in place instead of parsing the header.
+     */
+    boolean isSampled(Header traceparent) {
+        Object value = traceparent == null ? null : traceparent.value();
+        if (value instanceof String && ((String) value).length() == TRACEPARENT_LENGTH) {
+            return isSampledFlag(((String) value).charAt(TRACEPARENT_FLAGS_INDEX));
+        }
+        if (value instanceof byte[] && ((byte[]) value).length == TRACEPARENT_LENGTH) {
+            return isSampledFlag((char) ((byte[]) value)[TRACEPARENT_FLAGS_INDEX]);
+        }
+        return sampleRatio > 0.0 && (sampleRatio >= 1.0 || ThreadLocalRandom.current().nextDouble() < sampleRatio);
+    }
+
+    private static boolean isSampledFlag(char lowFlagsDigit) {
+        return (Character.digit(lowFlagsDigit, 16) & 1) == 1;
+    }
+
+    private static String headerString(Header header) {
+        if (header == null || header.value() == null) {
+            return null;
+        }
+        Object value = header.value();
+        if (value instanceof byte[]) {
+            return new String((byte[]) value, StandardCharsets.UTF_8);
+        }
+        return value.toString();
+    }
+
+    /**
+     * Spans of a single sampled record. Ended from the publish callback, so it holds no
+     * reference back to the task.
+     */
+    final class RecordTrace {
+        private final Context context;
+        private final Span send;
+        private Span convert;
+        private Span publish;
+
+        private RecordTrace(Context context, Span send) {
+            this.context = context;
+            this.send = send;
+            this.convert = tracer.spanBuilder("convert").setParent(context).startSpan();
+        }
+
+        void inject(PubsubMessage.Builder messageBuilder) {
+            W3CTraceContextPropagator.getInstance().inject(context, messageBuilder, ATTRIBUTES_SETTER);
+        }
+
+        /**
+         * Ends the conversion span and starts timing the publish.
+         */
+        void converted() {
+            convert.end();
+            publish = tracer.spanBuilder("publish").setParent(context).startSpan();
+        }
+
+        void published(String messageId) {
+            publish.setAttribute("messaging.message.id", messageId);
+            publish.end();
+            send.end();
+        }
+
+        void failed(Throwable throwable) {
+            Span current = publish != null ? publish : convert;
+            current.recordException(throwable);
+            current.setStatus(StatusCode.ERROR);
+            current.end();
+            send.setStatus(StatusCode.ERROR);
+            send.end();
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.kafka.connect.pubsub;
+
+import com.google.api.gax.core.FixedCredentialsProvider;
+import com.google.api.gax.grpc.InstantiatingGrpcChannelProvider;
+import com.google.api.gax.rpc.ApiException;
+import com.google.api.gax.rpc.NotFoundException;
+import com.google.api.gax.rpc.PermissionDeniedException;
+import com.google.api.gax.rpc.TransportChannel;
+import com.google.api.gax.rpc.TransportChannelProvider;
+import com.google.api.gax.rpc.UnauthenticatedException;
+import com.google.auth.Credentials;
+import com.google.cloud.pubsub.v1.TopicAdminClient;
+import com.google.cloud.pubsub.v1.TopicAdminSettings;
+import com.google.iam.v1.TestIamPermissionsRequest;
+import com.google.iam.v1.TestIamPermissionsResponse;
+import com.google.pubsub.v1.TopicName;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Start-up checks that open the Pub/Sub channel ahead of the first publish and confirm the
+ * destination topics exist and accept publishes from the configured credentials.
+ */
+final class PublisherWarmup {
+
+    private static final Logger log = LoggerFactory.getLogger(PublisherWarmup.class);
+
+    static final String PUBLISH_PERMISSION = "pubsub.topics.publish";
+
+    private PublisherWarmup() {
+    }
+
+    /**
+     * The Pub/Sub topics a task publishes to. The connector routes everything to a single
+     * topic today; warm-up and validation work over the list so further destinations only need
+     * to be added here.
+     */
+    static List<TopicName> destinationTopics(PubSubSinkConnectorConfig config) {
+        return Collections.singletonList(TopicName.of(config.getGcpProjectId(), config.getPubSubTopic()));
+    }
+
+    /**
+     * The transport {@code Publisher.Builder} uses by default: a pool of one gRPC channel per
+     * CPU with no inbound message size limit.
+     */
+    static InstantiatingGrpcChannelProvider channelProvider() {
+        return TopicAdminSettings.defaultGrpcTransportProviderBuilder()
+                .setChannelsPerCpu(1)
+                .setMaxInboundMessageSize(Integer.MAX_VALUE)
+                .build();
+    }
+
+    /**
+     * The number of channels in the pool opened by {@link #openChannel}.
+     */
+    static int channelCount() {
+        return channelProvider().getChannelPoolSettings().getInitialChannelCount();
+    }
+
+    /**
+     * Opens a channel pool sized like the publisher's default one, so the publisher and the
+     * verification client share the same pool. Channels connect lazily; passing
+     * {@link #channelCount()} to {@link #verifyTopics} connects every one of them. The caller
+     * owns the channel and must close it once the publisher has terminated.
+     */
+    static TransportChannel openChannel(Credentials credentials) throws IOException {
+        TransportChannelProvider provider = channelProvider();
+        if (provider.needsEndpoint()) {
+            provider = provider.withEndpoint(TopicAdminSettings.getDefaultEndpoint());
+        }
+        if (provider.needsHeaders()) {
+            provider = provider.withHeaders(
+                    TopicAdminSettings.defaultApiClientHeaderProviderBuilder().build().getHeaders());
+        }
+        if (provider.needsCredentials()) {
+            provider = provider.withCredentials(credentials);
+        }
+        return provider.getTransportChannel();
+    }
+
+    /**
+     * Creates an admin client on {@code channelProvider}, or on its own channel when null.
+     */
+    static TopicAdminClient createAdminClient(TransportChannelProvider channelProvider,
+                                              Credentials credentials) throws IOException {
+        TopicAdminSettings.Builder settings = TopicAdminSettings.newBuilder()
+                .setCredentialsProvider(FixedCredentialsProvider.create(credentials));
+        if (channelProvider != null) {
+            settings.setTransportChannelProvider(channelProvider);
+        }
+        return TopicAdminClient.create(settings.build());
+    }
+
+    /**
+     * Checks every topic in parallel and returns a problem description for each topic that is
+     * missing or not publishable. Checks that fail transiently or do not finish within
+     * {@code timeoutMs} are logged and left out, so a slow control plane never blocks start-up.
+     *
+     * <p>At least {@code channelCount} checks are sent at once, repeating the topics as needed.
+     * gax hands each call to the next channel of its pool in turn, so this connects and
+     * completes the TLS handshake on every channel the publisher may send its first batches on.
+     */
+    static Map<TopicName, String> verifyTopics(TopicAdminClient client, List<TopicName> topics,
+                                               int channelCount, long timeoutMs) {
+        if (topics.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        int callCount = Math.max(topics.size(), channelCount);
+        List<Callable<String>> checks = new ArrayList<>(callCount);
+        for (int i = 0; i < callCount; i++) {
+            TopicName topic = topics.get(i % topics.size());
+            checks.add(() -> verifyTopic(client, topic));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(callCount, r -> {
+            Thread thread = new Thread(r, "pubsub-warmup");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Map<TopicName, String> problems = new LinkedHashMap<>();
+        try {
+            List<Future<String>> results = executor.invokeAll(checks, timeoutMs, TimeUnit.MILLISECONDS);
+            for (int i = 0; i < callCount; i++) {
+                TopicName topic = topics.get(i % topics.size());
+                Future<String> result = results.get(i);
+                boolean warmupOnly = i >= topics.size();
+                if (result.isCancelled()) {
+                    if (warmupOnly) {
+                        log.debug("Warm-up call {} did not finish within {} ms", i, timeoutMs);
+                    } else {
+                        log.warn("Verification of Pub/Sub topic {} did not finish within {} ms", topic, timeoutMs);
+                    }
+                    continue;
+                }
+                try {
+                    String problem = result.get();
+                    if (problem != null) {
+                        problems.putIfAbsent(topic, problem);
+                    }
+                } catch (ExecutionException e) {
+                    if (!warmupOnly) {
+                        log.warn("Could not verify Pub/Sub topic {}", topic, e.getCause());
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted while verifying Pub/Sub topics");
+        } finally {
+            executor.shutdownNow();
+        }
+        return problems;
+    }
+
+    /**
+     * Uses testIamPermissions rather than getTopic, since it needs no permission beyond the
+     * publish grant itself while still reporting missing topics.
+     */
+    static String verifyTopic(TopicAdminClient client, TopicName topic) {
+        TestIamPermissionsRequest request = TestIamPermissionsRequest.newBuilder()
+                .setResource(topic.toString())
+                .addPermissions(PUBLISH_PERMISSION)
+                .build();
+        try {
+            TestIamPermissionsResponse response = client.testIamPermissions(request);
+            if (!response.getPermissionsList().contains(PUBLISH_PERMISSION)) {
+                return "Credentials lack " + PUBLISH_PERMISSION + " on Pub/Sub topic " + topic;
+            }
+            log.info("Verified Pub/Sub topic {}", topic);
+            return null;
+        } catch (NotFoundException e) {
+            return "Pub/Sub topic " + topic + " does not exist";
+        } catch (PermissionDeniedException | UnauthenticatedException e) {
+            return "Credentials are not authorized for Pub/Sub topic " + topic + ": " + e.getMessage();
+        } catch (ApiException e) {
+            log.warn("Could not verify Pub/Sub topic {}: status={}", topic, e.getStatusCode(), e);
+            return null;
+        }
+    }
+}
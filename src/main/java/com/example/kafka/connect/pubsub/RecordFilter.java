@@ -0,0 +1,237 @@
+package com.example.kafka.connect.pubsub;
+
+import org.apache.kafka.connect.data.Values;
+import org.apache.kafka.connect.header.Header;
+import org.apache.kafka.connect.sink.SinkRecord;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Drops records before they are converted to Pub/Sub messages. Predicates only look at the
+ * record topic, key and headers, never the value, and compare against prefixes and values
+ * encoded once up front so that evaluating a record does not allocate.
+ *
+ * <p>A record is published only if it passes every configured predicate. Drops are counted
+ * against the first predicate that rejected the record.
+ */
+final class RecordFilter {
+
+    static final String TOPIC = "topic";
+    static final String KEY_PREFIX = "key.prefix";
+    static final String HEADER = "header";
+    static final String SAMPLE = "sample";
+
+    private interface Predicate {
+        boolean test(SinkRecord record);
+    }
+
+    private final String[] names;
+    private final Predicate[] predicates;
+    private final long[] dropped;
+
+    private RecordFilter(List<String> names, List<Predicate> predicates) {
+        this.names = names.toArray(new String[0]);
+        this.predicates = predicates.toArray(new Predicate[0]);
+        this.dropped = new long[this.predicates.length];
+    }
+
+    /**
+     * Returns the filter described by {@code config}, or null when no predicate is configured
+     * so the task can skip the stage entirely.
+     */
+    static RecordFilter fromConfig(PubSubSinkConnectorConfig config) {
+        List<String> names = new ArrayList<>();
+        List<Predicate> predicates = new ArrayList<>();
+
+        List<String> topics = config.getPubSubFilterTopics();
+        if (!topics.isEmpty()) {
+            names.add(TOPIC);
+            predicates.add(topicPredicate(topics));
+        }
+
+        List<String> prefixes = config.getPubSubFilterKeyPrefixes();
+        if (!prefixes.isEmpty()) {
+            names.add(KEY_PREFIX);
+            predicates.add(keyPrefixPredicate(prefixes));
+        }
+
+        String headerName = config.getPubSubFilterHeaderName();
+        if (headerName != null && !headerName.isEmpty()) {
+            names.add(HEADER);
+            predicates.add(headerPredicate(headerName, config.getPubSubFilterHeaderValue()));
+        }
+
+        double sampleRate = config.getPubSubFilterSampleRate();
+        if (sampleRate < 1.0) {
+            names.add(SAMPLE);
+            predicates.add(samplePredicate(sampleRate));
+        }
+
+        return predicates.isEmpty() ? null : new RecordFilter(names, predicates);
+    }
+
+    boolean accept(SinkRecord record) {
+        for (int i = 0; i < predicates.length; i++) {
+            if (!predicates[i].test(record)) {
+                dropped[i]++;
+                return false;
+            }
+        }
+        return true;
+    }
+
+    Map<String, Long> dropCounts() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (int i = 0; i < names.length; i++) {
+            counts.put(names[i], dropped[i]);
+        }
+        return counts;
+    }
+
+    long totalDropped() {
+        long total = 0;
+        for (long count : dropped) {
+            total += count;
+        }
+        return total;
+    }
+
+    private static Predicate topicPredicate(List<String> topics) {
+        Set<String> allowed = new HashSet<>(topics);
+        return record -> allowed.contains(record.topic());
+    }
+
+    /**
+     * Keys other than String, byte[] or ByteBuffer never match, since comparing them would
+     * mean rendering the key to a string for every record.
+     */
+    private static Predicate keyPrefixPredicate(List<String> prefixes) {
+        String[] stringPrefixes = prefixes.toArray(new String[0]);
+        byte[][] bytePrefixes = new byte[stringPrefixes.length][];
+        for (int i = 0; i < stringPrefixes.length; i++) {
+            bytePrefixes[i] = stringPrefixes[i].getBytes(StandardCharsets.UTF_8);
+        }
+        return record -> {
+            Object key = record.key();
+            if (key instanceof String) {
+                String stringKey = (String) key;
+                for (String prefix : stringPrefixes) {
+                    if (stringKey.startsWith(prefix)) {
+                        return true;
+                    }
+                }
+            } else if (key instanceof byte[]) {
+                byte[] bytesKey = (byte[]) key;
+                for (byte[] prefix : bytePrefixes) {
+                    if (startsWith(bytesKey, 0, bytesKey.length, prefix)) {
+                        return true;
+                    }
+                }
+            } else if (key instanceof ByteBuffer && ((ByteBuffer) key).hasArray()) {
+                ByteBuffer buffer = (ByteBuffer) key;
+                int offset = buffer.arrayOffset() + buffer.position();
+                for (byte[] prefix : bytePrefixes) {
+                    if (startsWith(buffer.array(), offset, buffer.remaining(), prefix)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        };
+    }
+
+    private static boolean startsWith(byte[] bytes, int offset, int length, byte[] prefix) {
+        if (length < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (bytes[offset + i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Predicate headerPredicate(String name, String expectedValue) {
+        if (expectedValue == null || expectedValue.isEmpty()) {
+            return record -> record.headers().lastWithName(name) != null;
+        }
+        byte[] expectedBytes = expectedValue.getBytes(StandardCharsets.UTF_8);
+        // Parsed once the way SimpleHeaderConverter parses header values, so typed headers are
+        // compared by value rather than rendered to a string for every record
+        Object expectedTyped = Values.parseString(expectedValue).value();
+        return record -> {
+            Header header = record.headers().lastWithName(name);
+            if (header == null || header.value() == null) {
+                return false;
+            }
+            Object value = header.value();
+            if (value instanceof String) {
+                return expectedValue.equals(value);
+            }
+            if (value instanceof byte[]) {
+                return Arrays.equals(expectedBytes, (byte[]) value);
+            }
+            if (value instanceof Number && expectedTyped instanceof Number) {
+                return numbersEqual((Number) value, (Number) expectedTyped);
+            }
+            return value.equals(expectedTyped);
+        };
+    }
+
+    private static boolean numbersEqual(Number a, Number b) {
+        if (isIntegral(a) && isIntegral(b)) {
+            return a.longValue() == b.longValue();
+        }
+        if (a instanceof BigDecimal && b instanceof BigDecimal) {
+            return ((BigDecimal) a).compareTo((BigDecimal) b) == 0;
+        }
+        return Double.compare(a.doubleValue(), b.doubleValue()) == 0;
+    }
+
+    private static boolean isIntegral(Number n) {
+        return n instanceof Byte || n instanceof Short || n instanceof Integer || n instanceof Long;
+    }
+
+    private static Predicate samplePredicate(double rate) {
+        long threshold = (long) (rate * (1L << 32));
+        return record -> (mix(keyHash(record)) & 0xFFFFFFFFL) < threshold;
+    }
+
+    /**
+     * Records without a key are sampled by partition and offset, which is still stable across
+     * redeliveries of the same record.
+     */
+    static int keyHash(SinkRecord record) {
+        Object key = record.key();
+        if (key == null) {
+            return 31 * Long.hashCode(record.kafkaOffset()) + Integer.hashCode(record.kafkaPartition());
+        }
+        if (key instanceof byte[]) {
+            return Arrays.hashCode((byte[]) key);
+        }
+        return key.hashCode();
+    }
+
+    /**
+     * MurmurHash3 finalizer, spreading hashCode() values so that keys differing only in their
+     * last characters still land uniformly across the sampling range.
+     */
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
@@ -0,0 +1,358 @@
+package com.example.kafka.connect.pubsub;
+
+import com.google.auth.Credentials;
+import com.google.auth.RequestMetadataCallback;
+import com.google.auth.oauth2.AccessToken;
+import com.google.auth.oauth2.GoogleCredentials;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Credentials that keep an access token minted ahead of expiry on a background scheduler,
+ * so request metadata is always served from the cached token and publishes never wait on
+ * a token fetch. When a credential file is watched, edits to it or to the X.509 certificate
+ * and key it references swap in freshly loaded credentials.
+ */
+class RefreshingCredentials extends Credentials {
+
+    private static final Logger log = LoggerFactory.getLogger(RefreshingCredentials.class);
+
+    static final long RETRY_DELAY_MS = 10000L;
+    static final long WATCH_POLL_INTERVAL_MS = 1000L;
+    /**
+     * google-auth treats a token as stale 3m45s before expiry and as expired 3 minutes before,
+     * at which point request metadata waits on a synchronous fetch. Refreshing any later than
+     * this would put that fetch back on the publish path.
+     */
+    static final long MIN_REFRESH_MARGIN_MS = TimeUnit.SECONDS.toMillis(225);
+    private static final String CERTIFICATE_CONFIG_ENV = "GOOGLE_API_CERTIFICATE_CONFIG";
+
+    /**
+     * Loads a fresh, unrefreshed set of credentials from the configured source.
+     */
+    interface Loader {
+        GoogleCredentials load() throws IOException;
+    }
+
+    private final Loader loader;
+    private final Path sourcePath;
+    private final long refreshMarginMs;
+    private final ScheduledExecutorService scheduler;
+
+    private volatile GoogleCredentials delegate;
+    private ScheduledFuture<?> refreshTask;
+    private ScheduledFuture<?> watchTask;
+    private WatchService watchService;
+    private Map<Path, FileTime> watchedFiles = new LinkedHashMap<>();
+    private final Set<Path> watchedDirectories = new HashSet<>();
+    private boolean closed;
+
+    RefreshingCredentials(Loader loader, Path sourcePath, long refreshMarginMs,
+                          ScheduledExecutorService scheduler) throws IOException {
+        this.loader = loader;
+        this.sourcePath = sourcePath;
+        this.refreshMarginMs = refreshMarginMs;
+        this.scheduler = scheduler;
+        this.delegate = loader.load();
+    }
+
+    /**
+     * Mints the first token and schedules the next refresh. A failed first mint is retried in
+     * the background rather than failing the task, since the token endpoint may be briefly
+     * unreachable while the worker starts.
+     */
+    synchronized void start(boolean watchFiles) {
+        refreshAndReschedule();
+        if (watchFiles && sourcePath != null) {
+            startWatching();
+        }
+    }
+
+    synchronized void close() {
+        closed = true;
+        if (refreshTask != null) {
+            refreshTask.cancel(false);
+        }
+        if (watchTask != null) {
+            watchTask.cancel(false);
+        }
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                log.warn("Error closing credentials file watcher", e);
+            }
+        }
+    }
+
+    GoogleCredentials getDelegate() {
+        return delegate;
+    }
+
+    synchronized void refreshAndReschedule() {
+        if (closed) {
+            return;
+        }
+        long delayMs;
+        try {
+            delegate.refresh();
+            delayMs = nextRefreshDelayMs(delegate.getAccessToken());
+            log.debug("Refreshed GCP access token, next refresh in {} ms", delayMs);
+        } catch (IOException | RuntimeException e) {
+            delayMs = RETRY_DELAY_MS;
+            log.warn("Failed to refresh GCP access token, retrying in {} ms", delayMs, e);
+        }
+        scheduleRefresh(delayMs);
+    }
+
+    /**
+     * The margin is capped at half the token's remaining lifetime, so a margin configured at or
+     * above the lifetime still leaves the token in use for a while instead of refreshing it in
+     * a tight loop. It never drops below {@link #MIN_REFRESH_MARGIN_MS}, even for short-lived
+     * tokens, so the token is replaced before google-auth would fetch one itself.
+     */
+    long nextRefreshDelayMs(AccessToken token) {
+        if (token == null || token.getExpirationTime() == null) {
+            return refreshMarginMs > 0 ? refreshMarginMs : RETRY_DELAY_MS;
+        }
+        long untilExpiry = token.getExpirationTime().getTime() - System.currentTimeMillis();
+        long margin = Math.max(Math.min(refreshMarginMs, untilExpiry / 2), MIN_REFRESH_MARGIN_MS);
+        return Math.max(untilExpiry - margin, WATCH_POLL_INTERVAL_MS);
+    }
+
+    private void scheduleRefresh(long delayMs) {
+        if (refreshTask != null) {
+            refreshTask.cancel(false);
+        }
+        refreshTask = scheduler.schedule(this::refreshAndReschedule, delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Loads and mints a token for the new credentials before swapping them in, so a broken
+     * rotation leaves the previous credentials serving requests.
+     */
+    synchronized void reload() {
+        if (closed) {
+            return;
+        }
+        try {
+            GoogleCredentials reloaded = loader.load();
+            reloaded.refresh();
+            delegate = reloaded;
+            scheduleRefresh(nextRefreshDelayMs(reloaded.getAccessToken()));
+            log.info("Reloaded GCP credentials from {}", sourcePath);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to reload GCP credentials from {}, keeping previous credentials", sourcePath, e);
+        }
+    }
+
+    private void startWatching() {
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            watchedFiles = snapshot(resolveWatchedFiles(sourcePath));
+            watchDirectories(watchedFiles.keySet());
+            log.info("Watching credential files for changes: {}", watchedFiles.keySet());
+            watchTask = scheduler.scheduleWithFixedDelay(this::pollWatcher,
+                    WATCH_POLL_INTERVAL_MS, WATCH_POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        } catch (IOException e) {
+            log.warn("Could not watch credential files, rotation will not be picked up", e);
+        }
+    }
+
+    /**
+     * Registers the directories of {@code files} that are not watched yet. Called again whenever
+     * the watched files change, since a rotated certificate configuration may move the
+     * certificate and key to another directory.
+     */
+    private void watchDirectories(Set<Path> files) throws IOException {
+        for (Path file : files) {
+            Path dir = file.toAbsolutePath().getParent();
+            if (dir != null && !watchedDirectories.contains(dir) && Files.isDirectory(dir)) {
+                dir.register(watchService,
+                        StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY,
+                        StandardWatchEventKinds.ENTRY_DELETE);
+                watchedDirectories.add(dir);
+            }
+        }
+    }
+
+    private void pollWatcher() {
+        boolean sawEvent = false;
+        try {
+            WatchKey key;
+            while ((key = watchService.poll()) != null) {
+                key.pollEvents();
+                key.reset();
+                sawEvent = true;
+            }
+        } catch (ClosedWatchServiceException e) {
+            return;
+        }
+        if (sawEvent) {
+            checkForChanges();
+        }
+    }
+
+    /**
+     * Compares file timestamps rather than event file names so that rotations done by swapping
+     * a symlinked directory, as Kubernetes does for mounted secrets, are also detected.
+     */
+    synchronized boolean checkForChanges() {
+        Map<Path, FileTime> current = snapshot(resolveWatchedFiles(sourcePath));
+        if (current.equals(watchedFiles)) {
+            return false;
+        }
+        if (watchService != null && !current.keySet().equals(watchedFiles.keySet())) {
+            try {
+                watchDirectories(current.keySet());
+                log.info("Watching credential files for changes: {}", current.keySet());
+            } catch (IOException | ClosedWatchServiceException e) {
+                log.warn("Could not watch new credential files, their rotation will not be picked up", e);
+            }
+        }
+        watchedFiles = current;
+        reload();
+        return true;
+    }
+
+    private static Map<Path, FileTime> snapshot(List<Path> files) {
+        Map<Path, FileTime> snapshot = new LinkedHashMap<>();
+        for (Path file : files) {
+            FileTime modified = null;
+            try {
+                modified = Files.getLastModifiedTime(file);
+            } catch (IOException e) {
+                // Missing mid-rotation, recorded as null so its reappearance counts as a change
+            }
+            snapshot.put(file, modified);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Returns the credential file plus, for Workload Identity X.509 configurations, the
+     * certificate configuration and the certificate and key files it points at.
+     */
+    static List<Path> resolveWatchedFiles(Path credentialFile) {
+        List<Path> files = new ArrayList<>();
+        files.add(credentialFile);
+
+        JsonObject certificate = getObject(readJson(credentialFile), "credential_source", "certificate");
+        if (certificate == null) {
+            return files;
+        }
+
+        Path certificateConfig = null;
+        String location = getString(certificate, "certificate_config_location");
+        if (location != null) {
+            certificateConfig = Paths.get(location);
+        } else if (System.getenv(CERTIFICATE_CONFIG_ENV) != null) {
+            certificateConfig = Paths.get(System.getenv(CERTIFICATE_CONFIG_ENV));
+        }
+        if (certificateConfig == null) {
+            return files;
+        }
+        files.add(certificateConfig);
+
+        JsonObject workload = getObject(readJson(certificateConfig), "cert_configs", "workload");
+        if (workload != null) {
+            String certPath = getString(workload, "cert_path");
+            String keyPath = getString(workload, "key_path");
+            if (certPath != null) {
+                files.add(Paths.get(certPath));
+            }
+            if (keyPath != null) {
+                files.add(Paths.get(keyPath));
+            }
+        }
+        return files;
+    }
+
+    private static JsonObject readJson(Path file) {
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            JsonElement element = JsonParser.parseReader(reader);
+            return element.isJsonObject() ? element.getAsJsonObject() : null;
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static JsonObject getObject(JsonObject json, String... path) {
+        JsonObject current = json;
+        for (String name : path) {
+            if (current == null || !current.has(name) || !current.get(name).isJsonObject()) {
+                return null;
+            }
+            current = current.getAsJsonObject(name);
+        }
+        return current;
+    }
+
+    private static String getString(JsonObject json, String name) {
+        JsonElement element = json.get(name);
+        return element != null && element.isJsonPrimitive() ? element.getAsString() : null;
+    }
+
+    @Override
+    public String getAuthenticationType() {
+        return delegate.getAuthenticationType();
+    }
+
+    @Override
+    public String getUniverseDomain() throws IOException {
+        return delegate.getUniverseDomain();
+    }
+
+    @Override
+    public Map<String, List<String>> getRequestMetadata(URI uri) throws IOException {
+        return delegate.getRequestMetadata(uri);
+    }
+
+    @Override
+    public void getRequestMetadata(URI uri, Executor executor, RequestMetadataCallback callback) {
+        delegate.getRequestMetadata(uri, executor, callback);
+    }
+
+    @Override
+    public boolean hasRequestMetadata() {
+        return delegate.hasRequestMetadata();
+    }
+
+    @Override
+    public boolean hasRequestMetadataOnly() {
+        return delegate.hasRequestMetadataOnly();
+    }
+
+    @Override
+    public void refresh() throws IOException {
+        delegate.refresh();
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.kafka.connect.pubsub;
+
+import com.google.auth.oauth2.AccessToken;
+import com.google.auth.oauth2.GoogleCredentials;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CredentialsCacheTest {
+
+    private static final long MARGIN_MS = TimeUnit.MINUTES.toMillis(5);
+
+    @TempDir
+    Path tempDir;
+
+    private static class StaticCredentials extends GoogleCredentials {
+        @Override
+        public AccessToken refreshAccessToken() {
+            return new AccessToken("token", new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1)));
+        }
+    }
+
+    /**
+     * Credentials whose first token mint blocks until released, standing in for an
+     * unreachable token endpoint.
+     */
+    private static class BlockingCredentials extends StaticCredentials {
+        private final CountDownLatch minting;
+        private final CountDownLatch release;
+
+        BlockingCredentials(CountDownLatch minting, CountDownLatch release) {
+            this.minting = minting;
+            this.release = release;
+        }
+
+        @Override
+        public AccessToken refreshAccessToken() {
+            minting.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return super.refreshAccessToken();
+        }
+    }
+
+    @Test
+    void testSameSourceIsShared() throws IOException {
+        RefreshingCredentials first = CredentialsCache.acquire("shared", null, MARGIN_MS, false, StaticCredentials::new);
+        RefreshingCredentials second = CredentialsCache.acquire("shared", null, MARGIN_MS, false, StaticCredentials::new);
+
+        assertSame(first, second);
+
+        CredentialsCache.release(first);
+        CredentialsCache.release(second);
+        assertEquals(0, CredentialsCache.size());
+    }
+
+    @Test
+    void testDifferentRefreshSettingsAreNotShared() throws IOException {
+        RefreshingCredentials first = CredentialsCache.acquire("shared", null, MARGIN_MS, false, StaticCredentials::new);
+        RefreshingCredentials longerMargin = CredentialsCache.acquire("shared", null, 2 * MARGIN_MS, false,
+                StaticCredentials::new);
+        RefreshingCredentials watched = CredentialsCache.acquire("shared", null, MARGIN_MS, true, StaticCredentials::new);
+
+        assertNotSame(first, longerMargin);
+        assertNotSame(first, watched);
+        assertEquals(3, CredentialsCache.size());
+
+        CredentialsCache.release(first);
+        CredentialsCache.release(longerMargin);
+        CredentialsCache.release(watched);
+        assertEquals(0, CredentialsCache.size());
+    }
+
+    @Test
+    void testSlowSourceDoesNotBlockOtherSources() throws Exception {
+        CountDownLatch minting = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<RefreshingCredentials> slow = CompletableFuture.supplyAsync(() -> {
+            try {
+                return CredentialsCache.acquire("slow", null, MARGIN_MS, false,
+                        () -> new BlockingCredentials(minting, release));
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        assertTrue(minting.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<RefreshingCredentials> fast = CompletableFuture.supplyAsync(() -> {
+            try {
+                return CredentialsCache.acquire("fast", null, MARGIN_MS, false, StaticCredentials::new);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        RefreshingCredentials fastCredentials = fast.get(5, TimeUnit.SECONDS);
+        assertFalse(slow.isDone());
+
+        release.countDown();
+        CredentialsCache.release(slow.get(5, TimeUnit.SECONDS));
+        CredentialsCache.release(fastCredentials);
+        assertEquals(0, CredentialsCache.size());
+    }
+
+    @Test
+    void testFailedLoadIsNotCached() {
+        assertThrows(IOException.class, () -> CredentialsCache.acquire("broken", null, MARGIN_MS, false, () -> {
+            throw new IOException("unreadable");
+        }));
+
+        assertEquals(0, CredentialsCache.size());
+    }
+
+    @Test
+    void testLoadDoesNotCreateCacheEntry() throws IOException {
+        Path credentialsFile = tempDir.resolve("authorized-user.json");
+        Files.write(credentialsFile, ("{\"type\":\"authorized_user\",\"client_id\":\"id\","
+                + "\"client_secret\":\"secret\",\"refresh_token\":\"token\"}").getBytes(StandardCharsets.UTF_8));
+        PubSubSinkConnectorConfig config = new PubSubSinkConnectorConfig(Map.of(
+                PubSubSinkConnectorConfig.GCP_PROJECT_ID, "test-project",
+                PubSubSinkConnectorConfig.PUBSUB_TOPIC, "test-topic",
+                PubSubSinkConnectorConfig.GCP_CREDENTIALS_FILE_PATH, credentialsFile.toString()));
+
+        GoogleCredentials credentials = CredentialsCache.load(config);
+
+        assertNotNull(credentials);
+        assertEquals(0, CredentialsCache.size());
+    }
+}
@@ -37,6 +37,20 @@ class PubSubSinkConnectorConfigTest {
         assertEquals("key", config.getPubSubOrderingKeySource());
         assertEquals(100, config.getPubSubBatchSize());
         assertEquals(30000L, config.getPubSubPublishTimeoutMs());
+        assertEquals(300000L, config.getGcpCredentialsRefreshMarginMs());
+        assertTrue(config.isGcpCredentialsWatchEnabled());
+        assertFalse(config.isPubSubWarmupEnabled());
+        assertEquals(10000L, config.getPubSubWarmupTimeoutMs());
+    }
+
+    @Test
+    void testRefreshMarginBelowLibraryMarginIsRejected() {
+        Map<String, String> props = new HashMap<>();
+        props.put(PubSubSinkConnectorConfig.GCP_PROJECT_ID, "test-project");
+        props.put(PubSubSinkConnectorConfig.PUBSUB_TOPIC, "test-topic");
+        props.put(PubSubSinkConnectorConfig.GCP_CREDENTIALS_REFRESH_MARGIN_MS, "60000");
+
+        assertThrows(ConfigException.class, () -> new PubSubSinkConnectorConfig(props));
     }
 
     @Test
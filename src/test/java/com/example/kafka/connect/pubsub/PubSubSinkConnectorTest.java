@@ -1,8 +1,12 @@
 package com.example.kafka.connect.pubsub;
 
+import com.google.pubsub.v1.TopicName;
+import org.apache.kafka.common.config.Config;
+import org.apache.kafka.common.config.ConfigValue;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -69,4 +73,45 @@ class PubSubSinkConnectorTest {
         assertTrue(connector.config().configKeys().containsKey(PubSubSinkConnectorConfig.GCP_PROJECT_ID));
         assertTrue(connector.config().configKeys().containsKey(PubSubSinkConnectorConfig.PUBSUB_TOPIC));
     }
+
+    @Test
+    void testValidateSkipsTopicCheckByDefault() {
+        PubSubSinkConnector validating = new PubSubSinkConnector() {
+            @Override
+            Map<TopicName, String> verifyTopics(PubSubSinkConnectorConfig config) {
+                fail("topic check must be opt-in");
+                return Collections.emptyMap();
+            }
+        };
+
+        Config result = validating.validate(props);
+
+        assertTrue(errorsFor(result, PubSubSinkConnectorConfig.PUBSUB_TOPIC).isEmpty());
+    }
+
+    @Test
+    void testValidateReportsTopicProblems() {
+        props.put(PubSubSinkConnectorConfig.PUBSUB_WARMUP_ENABLED, "true");
+        TopicName topic = TopicName.of("test-project", "test-topic");
+        PubSubSinkConnector validating = new PubSubSinkConnector() {
+            @Override
+            Map<TopicName, String> verifyTopics(PubSubSinkConnectorConfig config) {
+                return Collections.singletonMap(topic, "Pub/Sub topic " + topic + " does not exist");
+            }
+        };
+
+        Config result = validating.validate(props);
+
+        assertEquals(List.of("Pub/Sub topic " + topic + " does not exist"),
+                errorsFor(result, PubSubSinkConnectorConfig.PUBSUB_TOPIC));
+    }
+
+    private static List<String> errorsFor(Config config, String name) {
+        for (ConfigValue value : config.configValues()) {
+            if (value.name().equals(name)) {
+                return value.errorMessages();
+            }
+        }
+        throw new AssertionError("No config value for " + name);
+    }
 }
@@ -0,0 +1,142 @@
+package com.example.kafka.connect.pubsub;
+
+import com.google.pubsub.v1.PubsubMessage;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import org.apache.kafka.connect.header.ConnectHeaders;
+import org.apache.kafka.connect.header.Headers;
+import org.apache.kafka.connect.sink.SinkRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PublishTracerTest {
+
+    private static final String TRACE_ID = "4bf92f3577b34da6a3ce929d0e0e4736";
+    private static final String SAMPLED_PARENT = "00-" + TRACE_ID + "-00f067aa0ba902b7-01";
+    private static final String UNSAMPLED_PARENT = "00-" + TRACE_ID + "-00f067aa0ba902b7-00";
+
+    private InMemorySpanExporter exporter;
+    private OpenTelemetrySdk openTelemetry;
+
+    @BeforeEach
+    void setUp() {
+        exporter = InMemorySpanExporter.create();
+        openTelemetry = OpenTelemetrySdk.builder()
+                .setTracerProvider(SdkTracerProvider.builder()
+                        .addSpanProcessor(SimpleSpanProcessor.create(exporter))
+                        .build())
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        openTelemetry.close();
+    }
+
+    private PublishTracer tracer(double sampleRatio) {
+        return new PublishTracer(openTelemetry, sampleRatio, "test-topic");
+    }
+
+    private static SinkRecord record(Headers headers) {
+        return new SinkRecord("orders", 3, null, "key", null, "value", 42L, null, null, headers);
+    }
+
+    private static SpanData span(List<SpanData> spans, String name) {
+        return spans.stream().filter(s -> s.getName().equals(name)).findFirst()
+                .orElseThrow(() -> new AssertionError("No span named " + name));
+    }
+
+    @Test
+    void testSampledParentIsContinued() {
+        PublishTracer tracer = tracer(0.0);
+        PublishTracer.RecordTrace trace = tracer.start(
+                record(new ConnectHeaders().addString(PublishTracer.TRACEPARENT, SAMPLED_PARENT)));
+        assertNotNull(trace);
+
+        PubsubMessage.Builder message = PubsubMessage.newBuilder();
+        trace.inject(message);
+        trace.converted();
+        trace.published("message-1");
+
+        List<SpanData> spans = exporter.getFinishedSpanItems();
+        assertEquals(3, spans.size());
+        SpanData send = span(spans, "test-topic send");
+        SpanData convert = span(spans, "convert");
+        SpanData publish = span(spans, "publish");
+
+        assertEquals(SpanKind.PRODUCER, send.getKind());
+        assertEquals(TRACE_ID, send.getTraceId());
+        assertEquals("00f067aa0ba902b7", send.getParentSpanId());
+        assertEquals(send.getSpanId(), convert.getParentSpanId());
+        assertEquals(send.getSpanId(), publish.getParentSpanId());
+        assertEquals("message-1", publish.getAttributes().get(AttributeKey.stringKey("messaging.message.id")));
+
+        assertEquals("00-" + TRACE_ID + "-" + send.getSpanId() + "-01",
+                message.getAttributesOrThrow(PublishTracer.TRACEPARENT));
+    }
+
+    @Test
+    void testUnsampledParentIsPropagatedWithoutSpans() {
+        PublishTracer tracer = tracer(1.0);
+        SinkRecord record = record(new ConnectHeaders()
+                .addBytes(PublishTracer.TRACEPARENT, UNSAMPLED_PARENT.getBytes(StandardCharsets.UTF_8))
+                .addString(PublishTracer.TRACESTATE, "vendor=value"));
+
+        assertNull(tracer.start(record));
+
+        PubsubMessage.Builder message = PubsubMessage.newBuilder();
+        tracer.propagate(record, message);
+
+        assertEquals(UNSAMPLED_PARENT, message.getAttributesOrThrow(PublishTracer.TRACEPARENT));
+        assertEquals("vendor=value", message.getAttributesOrThrow(PublishTracer.TRACESTATE));
+        assertTrue(exporter.getFinishedSpanItems().isEmpty());
+    }
+
+    @Test
+    void testRecordsWithoutParentAreSampledByRatio() {
+        SinkRecord record = record(new ConnectHeaders());
+
+        assertNull(tracer(0.0).start(record));
+
+        PublishTracer.RecordTrace trace = tracer(1.0).start(record);
+        assertNotNull(trace);
+        trace.converted();
+        trace.published("message-1");
+
+        SpanData send = span(exporter.getFinishedSpanItems(), "test-topic send");
+        assertFalse(send.getParentSpanContext().isValid());
+    }
+
+    @Test
+    void testPropagateWithoutTraceHeadersAddsNothing() {
+        PubsubMessage.Builder message = PubsubMessage.newBuilder();
+
+        tracer(0.0).propagate(record(new ConnectHeaders()), message);
+
+        assertEquals(0, message.getAttributesCount());
+    }
+
+    @Test
+    void testFailedPublishMarksSpansAsErrors() {
+        PublishTracer.RecordTrace trace = tracer(1.0).start(record(new ConnectHeaders()));
+        trace.converted();
+        trace.failed(new RuntimeException("publish failed"));
+
+        List<SpanData> spans = exporter.getFinishedSpanItems();
+        assertEquals(StatusCode.ERROR, span(spans, "publish").getStatus().getStatusCode());
+        assertEquals(StatusCode.ERROR, span(spans, "test-topic send").getStatus().getStatusCode());
+        assertEquals(1, span(spans, "publish").getEvents().size());
+    }
+}
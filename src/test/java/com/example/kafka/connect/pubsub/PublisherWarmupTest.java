@@ -0,0 +1,209 @@
+package com.example.kafka.connect.pubsub;
+
+import com.google.api.gax.core.NoCredentialsProvider;
+import com.google.api.gax.grpc.ChannelPoolSettings;
+import com.google.api.gax.grpc.GrpcStatusCode;
+import com.google.api.gax.grpc.InstantiatingGrpcChannelProvider;
+import com.google.api.gax.rpc.ApiExceptionFactory;
+import com.google.api.gax.rpc.FixedTransportChannelProvider;
+import com.google.api.gax.rpc.TransportChannel;
+import com.google.cloud.pubsub.v1.TopicAdminClient;
+import com.google.cloud.pubsub.v1.TopicAdminSettings;
+import com.google.iam.v1.TestIamPermissionsRequest;
+import com.google.iam.v1.TestIamPermissionsResponse;
+import com.google.pubsub.v1.TopicName;
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
+import io.grpc.Grpc;
+import io.grpc.InsecureServerCredentials;
+import io.grpc.MethodDescriptor;
+import io.grpc.Server;
+import io.grpc.ServerServiceDefinition;
+import io.grpc.Status;
+import io.grpc.protobuf.ProtoUtils;
+import io.grpc.stub.ServerCalls;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PublisherWarmupTest {
+
+    private static final TopicName TOPIC = TopicName.of("test-project", "test-topic");
+    private static final TopicName OTHER_TOPIC = TopicName.of("test-project", "other-topic");
+
+    private TopicAdminClient client;
+
+    @BeforeEach
+    void setUp() {
+        client = mock(TopicAdminClient.class);
+    }
+
+    private static TestIamPermissionsResponse granted(String... permissions) {
+        return TestIamPermissionsResponse.newBuilder().addAllPermissions(Arrays.asList(permissions)).build();
+    }
+
+    private void respond(TopicName topic, TestIamPermissionsResponse response) {
+        when(client.testIamPermissions(argThat((TestIamPermissionsRequest r) -> r != null
+                && r.getResource().equals(topic.toString())))).thenReturn(response);
+    }
+
+    @Test
+    void testPublishableTopicHasNoProblems() {
+        respond(TOPIC, granted(PublisherWarmup.PUBLISH_PERMISSION));
+
+        assertTrue(PublisherWarmup.verifyTopics(client, Collections.singletonList(TOPIC), 1, 5000L).isEmpty());
+    }
+
+    @Test
+    void testMissingPublishPermissionIsReported() {
+        respond(TOPIC, granted());
+
+        Map<TopicName, String> problems = PublisherWarmup.verifyTopics(client, Collections.singletonList(TOPIC), 1, 5000L);
+
+        assertTrue(problems.get(TOPIC).contains(PublisherWarmup.PUBLISH_PERMISSION));
+    }
+
+    @Test
+    void testMissingTopicIsReported() {
+        when(client.testIamPermissions(any(TestIamPermissionsRequest.class))).thenThrow(
+                ApiExceptionFactory.createException(null, GrpcStatusCode.of(Status.Code.NOT_FOUND), false));
+
+        Map<TopicName, String> problems = PublisherWarmup.verifyTopics(client, Collections.singletonList(TOPIC), 1, 5000L);
+
+        assertTrue(problems.get(TOPIC).contains("does not exist"));
+    }
+
+    @Test
+    void testTransientErrorIsNotReported() {
+        when(client.testIamPermissions(any(TestIamPermissionsRequest.class))).thenThrow(
+                ApiExceptionFactory.createException(null, GrpcStatusCode.of(Status.Code.UNAVAILABLE), true));
+
+        assertTrue(PublisherWarmup.verifyTopics(client, Collections.singletonList(TOPIC), 1, 5000L).isEmpty());
+    }
+
+    @Test
+    void testTopicsAreVerifiedIndependently() {
+        respond(TOPIC, granted(PublisherWarmup.PUBLISH_PERMISSION));
+        respond(OTHER_TOPIC, granted());
+
+        Map<TopicName, String> problems = PublisherWarmup.verifyTopics(client, List.of(TOPIC, OTHER_TOPIC), 1, 5000L);
+
+        assertEquals(Collections.singleton(OTHER_TOPIC), problems.keySet());
+    }
+
+    @Test
+    void testSlowCheckIsSkippedAfterTimeBudget() {
+        when(client.testIamPermissions(any(TestIamPermissionsRequest.class))).thenAnswer(invocation -> {
+            Thread.sleep(5000L);
+            return granted();
+        });
+
+        long startMs = System.currentTimeMillis();
+        Map<TopicName, String> problems = PublisherWarmup.verifyTopics(client, Collections.singletonList(TOPIC), 1, 100L);
+
+        assertTrue(problems.isEmpty());
+        assertTrue(System.currentTimeMillis() - startMs < 5000L);
+    }
+
+    @Test
+    void testEveryChannelIsCalledAtLeastOnce() {
+        respond(TOPIC, granted(PublisherWarmup.PUBLISH_PERMISSION));
+
+        assertTrue(PublisherWarmup.verifyTopics(client, Collections.singletonList(TOPIC), 4, 5000L).isEmpty());
+        verify(client, times(4))
+                .testIamPermissions(any(TestIamPermissionsRequest.class));
+    }
+
+    /**
+     * Runs verification through a real gax channel pool against a local server and records
+     * which channel of the pool carried each call.
+     */
+    @Test
+    void testWarmupUsesEveryChannelInPool() throws Exception {
+        int poolSize = 4;
+        MethodDescriptor<TestIamPermissionsRequest, TestIamPermissionsResponse> method =
+                MethodDescriptor.<TestIamPermissionsRequest, TestIamPermissionsResponse>newBuilder()
+                        .setType(MethodDescriptor.MethodType.UNARY)
+                        .setFullMethodName("google.iam.v1.IAMPolicy/TestIamPermissions")
+                        .setRequestMarshaller(ProtoUtils.marshaller(TestIamPermissionsRequest.getDefaultInstance()))
+                        .setResponseMarshaller(ProtoUtils.marshaller(TestIamPermissionsResponse.getDefaultInstance()))
+                        .build();
+        Server server = Grpc.newServerBuilderForPort(0, InsecureServerCredentials.create())
+                .addService(ServerServiceDefinition.builder("google.iam.v1.IAMPolicy")
+                        .addMethod(method, ServerCalls.asyncUnaryCall((request, observer) -> {
+                            observer.onNext(granted(PublisherWarmup.PUBLISH_PERMISSION));
+                            observer.onCompleted();
+                        }))
+                        .build())
+                .build()
+                .start();
+
+        AtomicInteger channelIds = new AtomicInteger();
+        Set<Integer> usedChannels = ConcurrentHashMap.newKeySet();
+        InstantiatingGrpcChannelProvider provider = InstantiatingGrpcChannelProvider.newBuilder()
+                .setEndpoint("localhost:" + server.getPort())
+                .setChannelPoolSettings(ChannelPoolSettings.staticallySized(poolSize))
+                .setChannelConfigurator(builder -> {
+                    int channelId = channelIds.getAndIncrement();
+                    return builder.usePlaintext().intercept(new ClientInterceptor() {
+                        @Override
+                        public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(
+                                MethodDescriptor<ReqT, RespT> called, CallOptions options, Channel next) {
+                            usedChannels.add(channelId);
+                            return next.newCall(called, options);
+                        }
+                    });
+                })
+                .build();
+        TransportChannel channel = provider.withHeaders(Collections.emptyMap()).getTransportChannel();
+        try (TopicAdminClient poolClient = TopicAdminClient.create(TopicAdminSettings.newBuilder()
+                .setCredentialsProvider(NoCredentialsProvider.create())
+                .setTransportChannelProvider(FixedTransportChannelProvider.create(channel))
+                .build())) {
+            assertTrue(PublisherWarmup.verifyTopics(poolClient, Collections.singletonList(TOPIC),
+                    poolSize, 5000L).isEmpty());
+
+            assertEquals(poolSize, channelIds.get());
+            assertEquals(poolSize, usedChannels.size());
+        } finally {
+            channel.shutdownNow();
+            channel.awaitTermination(5, TimeUnit.SECONDS);
+            server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    void testChannelPoolMatchesPublisherDefault() {
+        // Publisher.Builder uses setChannelsPerCpu(1), which gax caps at 100 channels
+        int expected = Math.min(Runtime.getRuntime().availableProcessors(), 100);
+
+        assertEquals(expected, PublisherWarmup.channelProvider().getChannelPoolSettings().getInitialChannelCount());
+    }
+
+    @Test
+    void testDestinationTopics() {
+        PubSubSinkConnectorConfig config = new PubSubSinkConnectorConfig(Map.of(
+                PubSubSinkConnectorConfig.GCP_PROJECT_ID, "test-project",
+                PubSubSinkConnectorConfig.PUBSUB_TOPIC, "test-topic"));
+
+        assertEquals(Collections.singletonList(TOPIC), PublisherWarmup.destinationTopics(config));
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.kafka.connect.pubsub;
+
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.header.ConnectHeaders;
+import org.apache.kafka.connect.header.Headers;
+import org.apache.kafka.connect.sink.SinkRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecordFilterTest {
+
+    private Map<String, String> props;
+
+    @BeforeEach
+    void setUp() {
+        props = new HashMap<>();
+        props.put(PubSubSinkConnectorConfig.GCP_PROJECT_ID, "test-project");
+        props.put(PubSubSinkConnectorConfig.PUBSUB_TOPIC, "test-topic");
+    }
+
+    private RecordFilter filter() {
+        return RecordFilter.fromConfig(new PubSubSinkConnectorConfig(props));
+    }
+
+    private static SinkRecord record(String topic, Object key, Headers headers) {
+        return new SinkRecord(topic, 0, null, key, null, "value", 42L, null, null, headers);
+    }
+
+    private static SinkRecord record(String topic, Object key) {
+        return record(topic, key, new ConnectHeaders());
+    }
+
+    @Test
+    void testNoPredicatesDisablesFilter() {
+        assertNull(filter());
+    }
+
+    @Test
+    void testTopicPredicate() {
+        props.put(PubSubSinkConnectorConfig.PUBSUB_FILTER_TOPICS, "orders,payments");
+        RecordFilter filter = filter();
+
+        assertTrue(filter.accept(record("orders", "k")));
+        assertFalse(filter.accept(record("clicks", "k")));
+        assertEquals(1L, filter.dropCounts().get(RecordFilter.TOPIC));
+    }
+
+    @Test
+    void testKeyPrefixPredicateOnStringAndBytes() {
+        props.put(PubSubSinkConnectorConfig.PUBSUB_FILTER_KEY_PREFIXES, "eu-,us-");
+        RecordFilter filter = filter();
+
+        assertTrue(filter.accept(record("t", "eu-123")));
+        assertTrue(filter.accept(record("t", "us-9".getBytes(StandardCharsets.UTF_8))));
+        assertTrue(filter.accept(record("t", ByteBuffer.wrap("xxeu-1".getBytes(StandardCharsets.UTF_8), 2, 4))));
+        assertFalse(filter.accept(record("t", "ap-1")));
+        assertFalse(filter.accept(record("t", "e".getBytes(StandardCharsets.UTF_8))));
+        assertFalse(filter.accept(record("t", null)));
+        assertFalse(filter.accept(record("t", 123L)));
+        assertEquals(4L, filter.dropCounts().get(RecordFilter.KEY_PREFIX));
+    }
+
+    @Test
+    void testHeaderPresencePredicate() {
+        props.put(PubSubSinkConnectorConfig.PUBSUB_FILTER_HEADER_NAME, "publish");
+        RecordFilter filter = filter();
+
+        assertTrue(filter.accept(record("t", "k", new ConnectHeaders().addString("publish", "anything"))));
+        assertFalse(filter.accept(record("t", "k", new ConnectHeaders().addString("other", "x"))));
+        assertEquals(1L, filter.dropCounts().get(RecordFilter.HEADER));
+    }
+
+    @Test
+    void testHeaderValuePredicate() {
+        props.put(PubSubSinkConnectorConfig.PUBSUB_FILTER_HEADER_NAME, "region");
+        props.put(PubSubSinkConnectorConfig.PUBSUB_FILTER_HEADER_VALUE, "eu");
+        RecordFilter filter = filter();
+
+        assertTrue(filter.accept(record("t", "k", new ConnectHeaders().addString("region", "eu"))));
+        assertTrue(filter.accept(record("t", "k",
+                new ConnectHeaders().addBytes("region", "eu".getBytes(StandardCharsets.UTF_8)))));
+        assertFalse(filter.accept(record("t", "k", new ConnectHeaders().addString("region", "us"))));
+        assertFalse(filter.accept(record("t", "k", new ConnectHeaders().add("region", null, Schema.OPTIONAL_STRING_SCHEMA))));
+    }
+
+    @Test
+    void testHeaderValuePredicateOnTypedValues() {
+        props.put(PubSubSinkConnectorConfig.PUBSUB_FILTER_HEADER_NAME, "version");
+        props.put(PubSubSinkConnectorConfig.PUBSUB_FILTER_HEADER_VALUE, "01");
+        RecordFilter filter = filter();
+
+        assertTrue(filter.accept(record("t", "k", new ConnectHeaders().addInt("version", 1))));
+        assertTrue(filter.accept(record("t", "k", new ConnectHeaders().addLong("version", 1L))));
+        assertTrue(filter.accept(record("t", "k", new ConnectHeaders().addByte("version", (byte) 1))));
+        assertFalse(filter.accept(record("t", "k", new ConnectHeaders().addInt("version", 2))));
+        assertTrue(filter.accept(record("t", "k", new ConnectHeaders().addString("version", "01"))));
+        assertFalse(filter.accept(record("t", "k", new ConnectHeaders().addString("version", "1"))));
+    }
+
+    @Test
+    void testHeaderValuePredicateOnBoolean() {
+        props.put(PubSubSinkConnectorConfig.PUBSUB_FILTER_HEADER_NAME, "publish");
+        props.put(PubSubSinkConnectorConfig.PUBSUB_FILTER_HEADER_VALUE, "true");
+        RecordFilter filter = filter();
+
+        assertTrue(filter.accept(record("t", "k", new ConnectHeaders().addBoolean("publish", true))));
+        assertFalse(filter.accept(record("t", "k", new ConnectHeaders().addBoolean("publish", false))));
+        assertFalse(filter.accept(record("t", "k", new ConnectHeaders().addInt("publish", 1))));
+    }
+
+    @Test
+    void testSamplingIsDeterministicByKey() {
+        props.put(PubSubSinkConnectorConfig.PUBSUB_FILTER_SAMPLE_RATE, "0.25");
+        RecordFilter filter = filter();
+
+        int accepted = 0;
+        for (int i = 0; i < 10000; i++) {
+            String key = "key-" + i;
+            boolean first = filter.accept(record("t", key));
+            assertEquals(first, filter.accept(record("other", key)), "same key must get the same decision");
+            if (first) {
+                accepted++;
+            }
+        }
+        assertTrue(accepted > 2000 && accepted < 3000, "accepted " + accepted + " of 10000");
+    }
+
+    @Test
+    void testZeroSampleRateDropsEverything() {
+        props.put(PubSubSinkConnectorConfig.PUBSUB_FILTER_SAMPLE_RATE, "0.0");
+        RecordFilter filter = filter();
+
+        assertFalse(filter.accept(record("t", "k")));
+        assertFalse(filter.accept(record("t", null)));
+        assertEquals(2L, filter.totalDropped());
+    }
+
+    @Test
+    void testDropsCountedAgainstFirstFailingPredicate() {
+        props.put(PubSubSinkConnectorConfig.PUBSUB_FILTER_TOPICS, "orders");
+        props.put(PubSubSinkConnectorConfig.PUBSUB_FILTER_KEY_PREFIXES, "eu-");
+        RecordFilter filter = filter();
+
+        filter.accept(record("clicks", "us-1"));
+        filter.accept(record("orders", "us-1"));
+        filter.accept(record("orders", "eu-1"));
+
+        assertEquals(1L, filter.dropCounts().get(RecordFilter.TOPIC));
+        assertEquals(1L, filter.dropCounts().get(RecordFilter.KEY_PREFIX));
+        assertEquals(2L, filter.totalDropped());
+    }
+}
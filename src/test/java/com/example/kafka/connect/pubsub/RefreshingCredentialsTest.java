@@ -0,0 +1,249 @@
+package com.example.kafka.connect.pubsub;
+
+import com.google.auth.oauth2.AccessToken;
+import com.google.auth.oauth2.GoogleCredentials;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RefreshingCredentialsTest {
+
+    private static final long TOKEN_LIFETIME_MS = TimeUnit.HOURS.toMillis(1);
+    private static final long MARGIN_MS = TimeUnit.MINUTES.toMillis(5);
+
+    @TempDir
+    Path tempDir;
+
+    private ScheduledExecutorService scheduler;
+    private AtomicInteger loads;
+    private AtomicInteger mints;
+
+    /**
+     * Credentials that mint a numbered token on every refresh without any network access.
+     */
+    private class CountingCredentials extends GoogleCredentials {
+        private final int generation;
+
+        CountingCredentials(int generation) {
+            this.generation = generation;
+        }
+
+        @Override
+        public AccessToken refreshAccessToken() {
+            int mint = mints.incrementAndGet();
+            return new AccessToken("token-" + generation + "-" + mint,
+                    new Date(System.currentTimeMillis() + TOKEN_LIFETIME_MS));
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        loads = new AtomicInteger();
+        mints = new AtomicInteger();
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    private RefreshingCredentials newCredentials(Path source) throws IOException {
+        return new RefreshingCredentials(() -> new CountingCredentials(loads.incrementAndGet()),
+                source, MARGIN_MS, scheduler);
+    }
+
+    @Test
+    void testStartMintsTokenBeforeFirstRequest() throws IOException {
+        RefreshingCredentials credentials = newCredentials(null);
+        credentials.start(false);
+
+        assertEquals(1, mints.get());
+        Map<String, List<String>> metadata = credentials.getRequestMetadata(URI.create("https://pubsub.googleapis.com"));
+        assertEquals("Bearer token-1-1", metadata.get("Authorization").get(0));
+        assertEquals(1, mints.get(), "request path must be served from the cached token");
+
+        credentials.close();
+    }
+
+    @Test
+    void testNextRefreshIsScheduledAheadOfExpiry() throws IOException {
+        RefreshingCredentials credentials = newCredentials(null);
+        AccessToken token = new AccessToken("t", new Date(System.currentTimeMillis() + TOKEN_LIFETIME_MS));
+
+        long delayMs = credentials.nextRefreshDelayMs(token);
+
+        assertTrue(delayMs <= TOKEN_LIFETIME_MS - MARGIN_MS);
+        assertTrue(delayMs > TOKEN_LIFETIME_MS - MARGIN_MS - TimeUnit.MINUTES.toMillis(1));
+    }
+
+    @Test
+    void testMarginLongerThanTokenLifetimeIsCapped() throws IOException {
+        RefreshingCredentials credentials = new RefreshingCredentials(
+                () -> new CountingCredentials(loads.incrementAndGet()), null, 2 * TOKEN_LIFETIME_MS, scheduler);
+        AccessToken token = new AccessToken("t", new Date(System.currentTimeMillis() + TOKEN_LIFETIME_MS));
+
+        long delayMs = credentials.nextRefreshDelayMs(token);
+
+        assertTrue(delayMs <= TOKEN_LIFETIME_MS / 2 + 1000L, "delay " + delayMs);
+        assertTrue(delayMs >= TOKEN_LIFETIME_MS / 2 - TimeUnit.MINUTES.toMillis(1), "delay " + delayMs);
+    }
+
+    @Test
+    void testSmallMarginIsRaisedToLibraryRefreshMargin() throws IOException {
+        RefreshingCredentials credentials = new RefreshingCredentials(
+                () -> new CountingCredentials(loads.incrementAndGet()), null, TimeUnit.MINUTES.toMillis(1), scheduler);
+        AccessToken token = new AccessToken("t", new Date(System.currentTimeMillis() + TOKEN_LIFETIME_MS));
+
+        long delayMs = credentials.nextRefreshDelayMs(token);
+
+        assertTrue(delayMs <= TOKEN_LIFETIME_MS - RefreshingCredentials.MIN_REFRESH_MARGIN_MS, "delay " + delayMs);
+    }
+
+    @Test
+    void testShortLivedTokenKeepsLibraryRefreshMargin() throws IOException {
+        RefreshingCredentials credentials = newCredentials(null);
+        long lifetimeMs = TimeUnit.MINUTES.toMillis(5);
+        AccessToken token = new AccessToken("t", new Date(System.currentTimeMillis() + lifetimeMs));
+
+        long delayMs = credentials.nextRefreshDelayMs(token);
+
+        assertTrue(delayMs <= lifetimeMs - RefreshingCredentials.MIN_REFRESH_MARGIN_MS, "delay " + delayMs);
+    }
+
+    @Test
+    void testExpiredTokenRefreshesSoon() throws IOException {
+        RefreshingCredentials credentials = newCredentials(null);
+        AccessToken token = new AccessToken("t", new Date(System.currentTimeMillis() - 1000L));
+
+        assertEquals(RefreshingCredentials.WATCH_POLL_INTERVAL_MS, credentials.nextRefreshDelayMs(token));
+    }
+
+    @Test
+    void testResolveWatchedFilesFollowsCertificateConfig() throws IOException {
+        Path cert = tempDir.resolve("workload.crt");
+        Path key = tempDir.resolve("workload.key");
+        Path certConfig = tempDir.resolve("certificate_config.json");
+        Path credentialConfig = tempDir.resolve("credential.json");
+        Files.write(certConfig, ("{\"cert_configs\":{\"workload\":{\"cert_path\":\"" + cert
+                + "\",\"key_path\":\"" + key + "\"}}}").getBytes(StandardCharsets.UTF_8));
+        Files.write(credentialConfig, ("{\"type\":\"external_account\",\"credential_source\":{\"certificate\":"
+                + "{\"certificate_config_location\":\"" + certConfig + "\"}}}").getBytes(StandardCharsets.UTF_8));
+
+        List<Path> files = RefreshingCredentials.resolveWatchedFiles(credentialConfig);
+
+        assertEquals(List.of(credentialConfig, certConfig, cert, key), files);
+    }
+
+    @Test
+    void testResolveWatchedFilesForServiceAccountKey() throws IOException {
+        Path keyFile = tempDir.resolve("service-account.json");
+        Files.write(keyFile, "{\"type\":\"service_account\"}".getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(List.of(keyFile), RefreshingCredentials.resolveWatchedFiles(keyFile));
+    }
+
+    @Test
+    void testRotatedFileSwapsInNewCredentials() throws IOException {
+        Path keyFile = tempDir.resolve("service-account.json");
+        Files.write(keyFile, "{\"type\":\"service_account\"}".getBytes(StandardCharsets.UTF_8));
+        RefreshingCredentials credentials = newCredentials(keyFile);
+        credentials.start(true);
+        GoogleCredentials original = credentials.getDelegate();
+
+        assertFalse(credentials.checkForChanges());
+        assertSame(original, credentials.getDelegate());
+
+        Files.setLastModifiedTime(keyFile, FileTime.fromMillis(System.currentTimeMillis() + 60000L));
+        assertTrue(credentials.checkForChanges());
+
+        assertNotSame(original, credentials.getDelegate());
+        assertEquals(2, loads.get());
+        assertNotNull(credentials.getDelegate().getAccessToken(), "reloaded credentials are minted before use");
+
+        credentials.close();
+    }
+
+    @Test
+    void testCertificateMovedToNewDirectoryIsWatched() throws Exception {
+        Path certConfig = tempDir.resolve("certificate_config.json");
+        Path credentialConfig = tempDir.resolve("credential.json");
+        Path oldDir = Files.createDirectory(tempDir.resolve("old"));
+        writeCertificateConfig(certConfig, oldDir.resolve("workload.crt"), oldDir.resolve("workload.key"));
+        Files.write(credentialConfig, ("{\"type\":\"external_account\",\"credential_source\":{\"certificate\":"
+                + "{\"certificate_config_location\":\"" + certConfig + "\"}}}").getBytes(StandardCharsets.UTF_8));
+        RefreshingCredentials credentials = newCredentials(credentialConfig);
+        credentials.start(true);
+
+        Path newDir = Files.createDirectory(tempDir.resolve("new"));
+        Path newCert = newDir.resolve("workload.crt");
+        Files.write(newCert, "cert".getBytes(StandardCharsets.UTF_8));
+        Files.write(newDir.resolve("workload.key"), "key".getBytes(StandardCharsets.UTF_8));
+        writeCertificateConfig(certConfig, newCert, newDir.resolve("workload.key"));
+        credentials.checkForChanges();
+        awaitLoads(2);
+        // Let the watcher drain the events of the move, so only the new directory can report the rotation
+        Thread.sleep(3 * RefreshingCredentials.WATCH_POLL_INTERVAL_MS);
+        assertEquals(2, loads.get());
+
+        Files.write(newCert, "rotated".getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(newCert, FileTime.fromMillis(System.currentTimeMillis() + 60000L));
+        awaitLoads(3);
+
+        credentials.close();
+    }
+
+    private static void writeCertificateConfig(Path certConfig, Path cert, Path key) throws IOException {
+        Files.write(certConfig, ("{\"cert_configs\":{\"workload\":{\"cert_path\":\"" + cert
+                + "\",\"key_path\":\"" + key + "\"}}}").getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void awaitLoads(int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000L;
+        while (loads.get() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50L);
+        }
+        assertEquals(expected, loads.get());
+    }
+
+    @Test
+    void testFailedReloadKeepsPreviousCredentials() throws IOException {
+        Path keyFile = tempDir.resolve("service-account.json");
+        Files.write(keyFile, "{}".getBytes(StandardCharsets.UTF_8));
+        AtomicBoolean failing = new AtomicBoolean();
+        RefreshingCredentials credentials = new RefreshingCredentials(() -> {
+            if (failing.get()) {
+                throw new IOException("broken rotation");
+            }
+            return new CountingCredentials(loads.incrementAndGet());
+        }, keyFile, MARGIN_MS, scheduler);
+        credentials.start(true);
+        GoogleCredentials original = credentials.getDelegate();
+
+        failing.set(true);
+        Files.setLastModifiedTime(keyFile, FileTime.fromMillis(System.currentTimeMillis() + 60000L));
+        credentials.checkForChanges();
+
+        assertSame(original, credentials.getDelegate());
+
+        credentials.close();
+    }
+}